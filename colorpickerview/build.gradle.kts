@@ -65,10 +65,17 @@ android {
   }
 
   resourcePrefix = "colorpickerview"
+
+  testOptions {
+    unitTests.isIncludeAndroidResources = true
+  }
 }
 
 dependencies {
   implementation(libs.androidx.appcompat)
 
+  testImplementation(libs.junit4)
+  testImplementation(libs.robolectric)
+
   baselineProfile(project(":benchmark"))
 }
@@ -25,5 +25,17 @@ public enum ActionMode {
   ALWAYS,
 
   /** invokes listener only when finger released. */
-  LAST
+  LAST,
+
+  /**
+   * invokes listener at once when tapped, and then at most once per throttle duration with the
+   * latest color while dragging.
+   */
+  THROTTLE,
+
+  /**
+   * invokes listener at once when tapped, and then at most once per frame with the latest color
+   * while dragging.
+   */
+  FRAME
 }
@@ -19,7 +19,6 @@ package com.skydoves.colorpickerview;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -34,8 +33,8 @@ import com.skydoves.colorpickerview.sliders.AlphaTileDrawable;
 public class AlphaTileView extends View {
 
   private Paint colorPaint;
-  private Bitmap backgroundBitmap;
   private final AlphaTileDrawable.Builder builder = new AlphaTileDrawable.Builder();
+  private AlphaTileDrawable drawable;
 
   public AlphaTileView(Context context) {
     super(context);
@@ -65,6 +64,7 @@ public class AlphaTileView extends View {
   private void onCreate() {
     this.colorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     this.setBackgroundColor(Color.WHITE);
+    this.drawable = builder.build();
   }
 
   private void getAttrs(AttributeSet attrs) {
@@ -84,24 +84,19 @@ public class AlphaTileView extends View {
     } finally {
       a.recycle();
     }
+    drawable = builder.build();
   }
 
   @Override
   protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
     super.onSizeChanged(width, height, oldWidth, oldHeight);
-    AlphaTileDrawable drawable = builder.build();
-    backgroundBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-    if (backgroundBitmap != null && !backgroundBitmap.isRecycled()) {
-      Canvas backgroundCanvas = new Canvas(backgroundBitmap);
-      drawable.setBounds(0, 0, backgroundCanvas.getWidth(), backgroundCanvas.getHeight());
-      drawable.draw(backgroundCanvas);
-    }
+    drawable.setBounds(0, 0, width, height);
   }
 
   @Override
   protected void onDraw(Canvas canvas) {
     super.onDraw(canvas);
-    canvas.drawBitmap(backgroundBitmap, 0, 0, null);
+    drawable.draw(canvas);
     canvas.drawRect(0, 0, getWidth(), getMeasuredHeight(), colorPaint);
   }
 
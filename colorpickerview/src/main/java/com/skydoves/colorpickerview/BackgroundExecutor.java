@@ -0,0 +1,55 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BackgroundExecutor runs the palette work of {@link ColorPickerView} which shouldn't block the
+ * main thread, such as extracting dominant colors or building a snap color table.
+ */
+final class BackgroundExecutor {
+
+  private static Executor executor;
+
+  private BackgroundExecutor() {}
+
+  /** gets the shared executor, creating it the first time. */
+  static synchronized Executor get() {
+    if (executor == null) {
+      // a single thread that finishes when it's idle, running the tasks in order.
+      ThreadPoolExecutor threadPoolExecutor =
+          new ThreadPoolExecutor(
+              1,
+              1,
+              1,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              runnable -> {
+                Thread thread = new Thread(runnable, "ColorPickerBackground");
+                thread.setDaemon(true);
+                return thread;
+              });
+      threadPoolExecutor.allowCoreThreadTimeOut(true);
+      executor = threadPoolExecutor;
+    }
+    return executor;
+  }
+}
@@ -0,0 +1,446 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.ColorInt;
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+
+/**
+ * BitmapPaletteSampler samples colors of an image palette from a {@link PaletteSnapshot} of its
+ * bitmap, averaging them by a {@link SamplingKernel} using a {@link SummedAreaTable}, and clamps
+ * coordinates using an {@link OpacityIndex}. Coordinates of colors are looked up using a {@link
+ * PaletteColorIndex}.
+ *
+ * <p>The snapshot is copied on the {@link BackgroundExecutor}, so a new palette doesn't copy its
+ * pixels on the main thread. Colors are sampled from the bitmap directly until it's copied. The
+ * opacity index is built there too whenever the palette is laid out, and touches are clamped by
+ * bisecting toward the center of the view until it's built. So is the summed-area table of a
+ * kernel, and kernels are summed directly from the snapshot until it's built or if the palette is
+ * bigger than {@link SummedAreaTable#MAX_PIXELS}. The color index is built there on demand by
+ * {@link #buildColorIndex(Runnable)}, and colors can't be looked up until it's built.
+ *
+ * <p>Palettes which aren't {@link BitmapDrawable}s have no pixels to sample, so they are
+ * transparent everywhere.
+ */
+class BitmapPaletteSampler implements PaletteSampler {
+
+  private final Drawable drawable;
+  private final Matrix imageMatrix = new Matrix();
+  private final Matrix invertMatrix = new Matrix();
+  private final float[] mappedPoints = new float[2];
+  private int width;
+  private int height;
+
+  private boolean snapshotEnabled = true;
+  private long snapshotMaxPixels = ColorPickerView.DEFAULT_PALETTE_SNAPSHOT_MAX_PIXELS;
+  private volatile SummedAreaTable.Kernel kernel;
+  private volatile PaletteSnapshot snapshot;
+  // the bitmap and generation being copied into a snapshot on the background thread.
+  private Bitmap pendingSnapshotBitmap;
+  private int pendingSnapshotGenerationId;
+  private volatile SummedAreaTable summedAreaTable;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private OpacityIndex opacityIndex;
+  private Runnable opacityIndexTask;
+  private PaletteColorIndex colorIndex;
+  private Runnable colorIndexTask;
+  private final ArrayList<Runnable> colorIndexCallbacks = new ArrayList<>();
+
+  BitmapPaletteSampler(Drawable drawable) {
+    this.drawable = drawable;
+  }
+
+  /** returns true if this sampler samples the drawable. */
+  boolean isSamplerOf(Drawable drawable) {
+    return this.drawable == drawable;
+  }
+
+  /**
+   * sets whether the bitmap's pixels are copied into a snapshot, and the maximum pixel count of a
+   * bitmap to be copied.
+   */
+  void setSnapshotEnabled(boolean enabled, long maxPixels) {
+    this.snapshotEnabled = enabled;
+    this.snapshotMaxPixels = maxPixels;
+    updateSnapshot();
+  }
+
+  /** sets the kernel averaging the sampled colors, or null for sampling single pixels. */
+  void setKernel(SummedAreaTable.Kernel kernel) {
+    this.kernel = kernel;
+    if (kernel == null) {
+      summedAreaTable = null;
+      return;
+    }
+    PaletteSnapshot snapshot = this.snapshot;
+    SummedAreaTable summedAreaTable = this.summedAreaTable;
+    if (snapshot != null
+        && (summedAreaTable == null || !summedAreaTable.isBuiltFrom(snapshot))) {
+      BackgroundExecutor.get().execute(() -> buildSummedAreaTable(snapshot));
+    }
+  }
+
+  /** gets the number of bytes retained by the snapshot and its summed-area table. */
+  long getSnapshotByteCount() {
+    PaletteSnapshot snapshot = this.snapshot;
+    SummedAreaTable summedAreaTable = this.summedAreaTable;
+    if (snapshot == null) return 0;
+    long byteCount = snapshot.getByteCount();
+    if (summedAreaTable != null && summedAreaTable.isBuiltFrom(snapshot)) {
+      byteCount += summedAreaTable.getByteCount();
+    }
+    return byteCount;
+  }
+
+  /**
+   * copies the pixels of the bitmap once on the background thread, so sampling colors reads from
+   * an array instead of calling {@link Bitmap#getPixel(int, int)} on every lookup.
+   */
+  private void updateSnapshot() {
+    Bitmap bitmap = null;
+    if (snapshotEnabled && drawable instanceof BitmapDrawable) {
+      bitmap = ((BitmapDrawable) drawable).getBitmap();
+    }
+    if (bitmap == null
+        || bitmap.isRecycled()
+        || (long) bitmap.getWidth() * bitmap.getHeight() > snapshotMaxPixels) {
+      pendingSnapshotBitmap = null;
+      snapshot = null;
+      summedAreaTable = null;
+      return;
+    }
+    PaletteSnapshot snapshot = this.snapshot;
+    if (snapshot != null && snapshot.isSnapshotOf(bitmap)) return;
+    int generationId = bitmap.getGenerationId();
+    if (pendingSnapshotBitmap == bitmap && pendingSnapshotGenerationId == generationId) return;
+    pendingSnapshotBitmap = bitmap;
+    pendingSnapshotGenerationId = generationId;
+
+    final Bitmap copiedBitmap = bitmap;
+    BackgroundExecutor.get()
+        .execute(
+            () -> {
+              PaletteSnapshot copiedSnapshot;
+              try {
+                copiedSnapshot = new PaletteSnapshot(copiedBitmap);
+              } catch (IllegalStateException e) {
+                // the bitmap has been recycled, so it's sampled from the bitmap as before.
+                return;
+              }
+              this.snapshot = copiedSnapshot;
+              buildSummedAreaTable(copiedSnapshot);
+            });
+  }
+
+  /**
+   * builds the summed-area table of a snapshot on the background thread, if a kernel is set and
+   * the snapshot is small enough.
+   */
+  private void buildSummedAreaTable(PaletteSnapshot snapshot) {
+    if (kernel == null
+        || this.snapshot != snapshot
+        || (long) snapshot.getWidth() * snapshot.getHeight() > SummedAreaTable.MAX_PIXELS) {
+      return;
+    }
+    SummedAreaTable summedAreaTable = this.summedAreaTable;
+    if (summedAreaTable != null && summedAreaTable.isBuiltFrom(snapshot)) return;
+    this.summedAreaTable = new SummedAreaTable(snapshot);
+  }
+
+  @Override
+  public void onLayout(int width, int height, Matrix imageMatrix) {
+    updateSnapshot();
+    if (this.width == width && this.height == height && this.imageMatrix.equals(imageMatrix)) {
+      return;
+    }
+    this.width = width;
+    this.height = height;
+    this.imageMatrix.set(imageMatrix);
+    imageMatrix.invert(invertMatrix);
+    updateOpacityIndex();
+  }
+
+  /** builds the {@link OpacityIndex} of the current layout on the background thread. */
+  private void updateOpacityIndex() {
+    opacityIndex = null;
+    opacityIndexTask = null;
+    if (width <= 0 || height <= 0) return;
+    Bitmap bitmap = null;
+    if (drawable instanceof BitmapDrawable) {
+      bitmap = ((BitmapDrawable) drawable).getBitmap();
+      if (bitmap == null || bitmap.isRecycled()) return;
+    }
+
+    final OpacityMask mask = new OpacityMask(drawable, bitmap, invertMatrix);
+    final int width = this.width;
+    final int height = this.height;
+    Runnable task =
+        new Runnable() {
+          @Override
+          public void run() {
+            OpacityIndex index;
+            try {
+              mask.setSnapshot(snapshot);
+              index = OpacityIndex.build(mask, width, height);
+            } catch (IllegalStateException e) {
+              // the bitmap has been recycled, so touches keep being clamped by bisecting.
+              return;
+            }
+            Runnable task = this;
+            mainHandler.post(
+                () -> {
+                  if (opacityIndexTask == task) {
+                    opacityIndex = index;
+                    opacityIndexTask = null;
+                  }
+                });
+          }
+        };
+    opacityIndexTask = task;
+    BackgroundExecutor.get().execute(task);
+  }
+
+  @Override
+  @ColorInt
+  public int colorAt(float x, float y) {
+    mappedPoints[0] = x;
+    mappedPoints[1] = y;
+    invertMatrix.mapPoints(mappedPoints);
+
+    if (!(drawable instanceof BitmapDrawable)
+        || mappedPoints[0] < 0
+        || mappedPoints[1] < 0
+        || mappedPoints[0] >= drawable.getIntrinsicWidth()
+        || mappedPoints[1] >= drawable.getIntrinsicHeight()) {
+      return Color.TRANSPARENT;
+    }
+
+    Rect rect = drawable.getBounds();
+    Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+    float scaleX = mappedPoints[0] / rect.width();
+    int x1 = (int) (scaleX * bitmap.getWidth());
+    float scaleY = mappedPoints[1] / rect.height();
+    int y1 = (int) (scaleY * bitmap.getHeight());
+    PaletteSnapshot snapshot = this.snapshot;
+    if (snapshot != null && snapshot.isCopiedFrom(bitmap)) {
+      int pixel = snapshot.getPixel(x1, y1);
+      SummedAreaTable.Kernel kernel = this.kernel;
+      if (kernel == null || pixel == Color.TRANSPARENT) return pixel;
+      SummedAreaTable summedAreaTable = this.summedAreaTable;
+      if (summedAreaTable != null && summedAreaTable.isBuiltFrom(snapshot)) {
+        return summedAreaTable.sample(x1, y1, kernel);
+      }
+      return SummedAreaTable.sampleDirectly(snapshot, x1, y1, kernel);
+    }
+    return bitmap.getPixel(x1, y1);
+  }
+
+  /** returns true if the color index of the current bitmap is built. */
+  @MainThread
+  boolean isColorIndexBuilt() {
+    Bitmap bitmap = getIndexableBitmap();
+    return bitmap != null && colorIndex != null && colorIndex.isBuiltFrom(bitmap);
+  }
+
+  /**
+   * builds the color index of the current bitmap on the background thread, unless it's built or
+   * being built, and runs the callback on the main thread once it's built.
+   *
+   * @param callback the callback, or null.
+   * @return false if the palette has no bitmap to index, and the callback is never run.
+   */
+  @MainThread
+  boolean buildColorIndex(@Nullable Runnable callback) {
+    final Bitmap bitmap = getIndexableBitmap();
+    if (bitmap == null) return false;
+    if (colorIndex != null && colorIndex.isBuiltFrom(bitmap)) {
+      if (callback != null) callback.run();
+      return true;
+    }
+    if (callback != null) colorIndexCallbacks.add(callback);
+    if (colorIndexTask != null) return true;
+
+    colorIndex = null;
+    Runnable task =
+        new Runnable() {
+          @Override
+          public void run() {
+            PaletteColorIndex index;
+            try {
+              // a snapshot scheduled before is copied by now, as the executor runs tasks in order.
+              PaletteSnapshot snapshot = BitmapPaletteSampler.this.snapshot;
+              boolean copied = snapshot != null && snapshot.isSnapshotOf(bitmap);
+              index = new PaletteColorIndex(bitmap, copied ? snapshot : null);
+            } catch (IllegalStateException e) {
+              // the bitmap has been recycled, so no colors can be looked up.
+              index = null;
+            }
+            PaletteColorIndex builtIndex = index;
+            Runnable task = this;
+            mainHandler.post(() -> onColorIndexBuilt(task, builtIndex));
+          }
+        };
+    colorIndexTask = task;
+    BackgroundExecutor.get().execute(task);
+    return true;
+  }
+
+  private void onColorIndexBuilt(Runnable task, @Nullable PaletteColorIndex index) {
+    if (colorIndexTask != task) return;
+    colorIndexTask = null;
+    colorIndex = index;
+    Bitmap bitmap = getIndexableBitmap();
+    if (index != null && bitmap != null && !index.isBuiltFrom(bitmap)) {
+      // the bitmap has been drawn on while building, so it's indexed again for the callbacks.
+      buildColorIndex(null);
+      return;
+    }
+    ArrayList<Runnable> callbacks = new ArrayList<>(colorIndexCallbacks);
+    colorIndexCallbacks.clear();
+    for (Runnable callback : callbacks) {
+      callback.run();
+    }
+  }
+
+  /** gets the bitmap of the palette if its colors can be indexed. */
+  private @Nullable Bitmap getIndexableBitmap() {
+    if (!(drawable instanceof BitmapDrawable)) return null;
+    Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+    if (bitmap == null || bitmap.isRecycled()) return null;
+    return bitmap;
+  }
+
+  /**
+   * gets the center of the pixel whose color is the nearest to a color.
+   *
+   * @param color color.
+   * @param out the coordinate.
+   * @return true if a coordinate is found, false if the color index isn't built yet or the
+   *     palette has no opaque pixel.
+   */
+  @Override
+  public boolean pointOf(@ColorInt int color, PointF out) {
+    if (!isColorIndexBuilt()) return false;
+    Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+    int position = colorIndex.nearest(color);
+    if (position == -1) return false;
+
+    Rect rect = drawable.getBounds();
+    mappedPoints[0] = (colorIndex.getX(position) + 0.5f) * rect.width() / bitmap.getWidth();
+    mappedPoints[1] = (colorIndex.getY(position) + 0.5f) * rect.height() / bitmap.getHeight();
+    imageMatrix.mapPoints(mappedPoints);
+    out.set(mappedPoints[0], mappedPoints[1]);
+    return true;
+  }
+
+  /**
+   * clamps a coordinate to the nearest opaque coordinate using the {@link OpacityIndex}, or by
+   * bisecting toward the center of the view until the index is built.
+   */
+  @Override
+  public void clamp(float x, float y, PointF out) {
+    if (width <= 0 || height <= 0) {
+      out.set(x, y);
+      return;
+    }
+    if (opacityIndex != null) {
+      opacityIndex.clamp(this, x, y, out);
+      return;
+    }
+    if (x >= 0 && y >= 0 && x < width && y < height && colorAt(x, y) != Color.TRANSPARENT) {
+      out.set(x, y);
+      return;
+    }
+    float endX = width / 2;
+    float endY = height / 2;
+    while (Math.abs(endX - x) + Math.abs(endY - y) > 3) {
+      float centerX = (endX + x) / 2;
+      float centerY = (endY + y) / 2;
+      if (colorAt(centerX, centerY) == Color.TRANSPARENT) {
+        x = centerX;
+        y = centerY;
+      } else {
+        endX = centerX;
+        endY = centerY;
+      }
+    }
+    out.set(endX, endY);
+  }
+
+  /**
+   * OpacityMask reads the opacity of the palette from a snapshot of its pixels or its bitmap,
+   * mapping coordinates of the view with a copy of the inverse image matrix, so it doesn't touch
+   * the sampler's state on the background thread.
+   */
+  private static final class OpacityMask implements OpacityIndex.Mask {
+
+    private final Bitmap bitmap;
+    private final float[] values = new float[9];
+    private final float boundsWidth;
+    private final float boundsHeight;
+    private final int intrinsicWidth;
+    private final int intrinsicHeight;
+    private PaletteSnapshot snapshot;
+
+    OpacityMask(Drawable drawable, @Nullable Bitmap bitmap, Matrix invertMatrix) {
+      this.bitmap = bitmap;
+      invertMatrix.getValues(values);
+      Rect bounds = drawable.getBounds();
+      this.boundsWidth = bounds.width();
+      this.boundsHeight = bounds.height();
+      this.intrinsicWidth = drawable.getIntrinsicWidth();
+      this.intrinsicHeight = drawable.getIntrinsicHeight();
+    }
+
+    void setSnapshot(@Nullable PaletteSnapshot snapshot) {
+      this.snapshot = snapshot != null && snapshot.isCopiedFrom(bitmap) ? snapshot : null;
+    }
+
+    @Override
+    public boolean isOpaque(float x, float y) {
+      if (bitmap == null) return false;
+      float mappedX =
+          values[Matrix.MSCALE_X] * x + values[Matrix.MSKEW_X] * y + values[Matrix.MTRANS_X];
+      float mappedY =
+          values[Matrix.MSKEW_Y] * x + values[Matrix.MSCALE_Y] * y + values[Matrix.MTRANS_Y];
+      float w =
+          values[Matrix.MPERSP_0] * x + values[Matrix.MPERSP_1] * y + values[Matrix.MPERSP_2];
+      if (w != 1) {
+        mappedX /= w;
+        mappedY /= w;
+      }
+      if (mappedX < 0 || mappedY < 0 || mappedX >= intrinsicWidth || mappedY >= intrinsicHeight) {
+        return false;
+      }
+      int x1 = (int) (mappedX / boundsWidth * bitmap.getWidth());
+      int y1 = (int) (mappedY / boundsHeight * bitmap.getHeight());
+      int pixel = snapshot != null ? snapshot.getPixel(x1, y1) : bitmap.getPixel(x1, y1);
+      return pixel != Color.TRANSPARENT;
+    }
+  }
+}
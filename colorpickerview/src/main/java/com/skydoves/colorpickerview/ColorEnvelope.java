@@ -17,19 +17,27 @@
 package com.skydoves.colorpickerview;
 
 import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-/** ColorEnvelope is a wrapper class of colors for provide various forms of color. */
+/**
+ * ColorEnvelope is a wrapper class of colors for provide various forms of color.
+ *
+ * <p>Each form is computed the first time it is requested and cached afterward, so an envelope is
+ * cheap to create when only some of its forms are read.
+ */
 @SuppressWarnings("unused")
 public class ColorEnvelope {
 
-  @ColorInt private int color;
-  private String hexCode;
-  private int[] argb;
+  @ColorInt private final int color;
+  private volatile String hexCode;
+  private volatile int[] argb;
+  private volatile float[] hsv;
+  private volatile float[] hsl;
+  private volatile ColorName colorName;
 
   public ColorEnvelope(@ColorInt int color) {
     this.color = color;
-    this.hexCode = ColorUtils.getHexCode(color);
-    this.argb = ColorUtils.getColorARGB(color);
   }
 
   /**
@@ -47,6 +55,11 @@ public class ColorEnvelope {
    * @return hex code.
    */
   public String getHexCode() {
+    String hexCode = this.hexCode;
+    if (hexCode == null) {
+      hexCode = ColorUtils.getHexCode(color);
+      this.hexCode = hexCode;
+    }
     return hexCode;
   }
 
@@ -56,6 +69,68 @@ public class ColorEnvelope {
    * @return argb integer array.
    */
   public int[] getArgb() {
+    int[] argb = this.argb;
+    if (argb == null) {
+      argb = ColorUtils.getColorARGB(color);
+      this.argb = argb;
+    }
     return argb;
   }
+
+  /**
+   * gets envelope's hsv color.
+   *
+   * @return hue, saturation and value float array.
+   */
+  public float[] getHsv() {
+    float[] hsv = this.hsv;
+    if (hsv == null) {
+      hsv = ColorUtils.getColorHSV(color);
+      this.hsv = hsv;
+    }
+    return hsv;
+  }
+
+  /**
+   * gets envelope's hsl color.
+   *
+   * @return hue, saturation and lightness float array.
+   */
+  public float[] getHsl() {
+    float[] hsl = this.hsl;
+    if (hsl == null) {
+      hsl = ColorUtils.getColorHSL(color);
+      this.hsl = hsl;
+    }
+    return hsl;
+  }
+
+  /**
+   * gets the name of the named color nearest to envelope's color.
+   *
+   * <p>The name is looked up the first time it is requested from an index.
+   *
+   * @param colorNameIndex {@link ColorNameIndex}, such as {@link
+   *     ColorNameIndex#getDefault(android.content.Context)}.
+   * @return the color name, or null if the index is empty.
+   */
+  public @Nullable String getColorName(@NonNull ColorNameIndex colorNameIndex) {
+    ColorName colorName = this.colorName;
+    if (colorName == null || colorName.index != colorNameIndex) {
+      colorName = new ColorName(colorNameIndex, colorNameIndex.getNearestName(color));
+      this.colorName = colorName;
+    }
+    return colorName.name;
+  }
+
+  /** ColorName is a color name with the index it was looked up from. */
+  private static final class ColorName {
+    private final ColorNameIndex index;
+    private final String name;
+
+    ColorName(ColorNameIndex index, String name) {
+      this.index = index;
+      this.name = name;
+    }
+  }
 }
@@ -24,31 +24,126 @@ import android.graphics.ColorFilter;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
 import android.graphics.RadialGradient;
+import android.graphics.Rect;
 import android.graphics.Shader;
 import android.graphics.SweepGradient;
 import android.graphics.drawable.BitmapDrawable;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 /**
  * ColorHsvPalette is a default drawable palette built by HSV (hue, saturation, value) color model
  * for alternating representations of the RGB color model.
+ *
+ * <p>The shaders of the wheel are built once per bounds change. If the drawable's bitmap matches
+ * the bounds, the wheel is rendered into it once and drawing the palette costs one bitmap blit.
+ * The default palettes of {@link ColorPickerView} share pre-rendered bitmaps of the same size
+ * through the {@link HsvPaletteCache}, and draw the wheel with the shaders while the shared bitmap
+ * is being rendered.
  */
 public class ColorHsvPalette extends BitmapDrawable {
 
+  private static int shaderConstructionCount = 0;
+
   private final Paint huePaint;
   private final Paint saturationPaint;
+  private final boolean sharedBitmap;
+  private boolean shadersDirty = true;
+  private boolean renderCacheDirty;
+  private boolean renderCacheEnabled = true;
+  private boolean sharedBitmapRendered;
 
   public ColorHsvPalette(Resources resources, Bitmap bitmap) {
+    this(resources, bitmap, false);
+  }
+
+  /**
+   * creates a palette without any bitmap, which draws the wheel on every draw with the cached
+   * shaders. It fills the bounds given by its view, since it has no intrinsic size.
+   *
+   * @param resources resources.
+   */
+  public ColorHsvPalette(Resources resources) {
+    this(resources, null, false);
+  }
+
+  /**
+   * @param sharedBitmap true if the bitmap is a pre-rendered wheel shared with other palettes,
+   *     which must not be drawn into.
+   */
+  ColorHsvPalette(Resources resources, Bitmap bitmap, boolean sharedBitmap) {
     super(resources, bitmap);
     this.huePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     this.saturationPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    this.sharedBitmap = sharedBitmap;
+    this.renderCacheDirty = !sharedBitmap;
+    this.sharedBitmapRendered =
+        !sharedBitmap || HsvPaletteCache.getInstance().isRendered(bitmap);
+    if (!sharedBitmapRendered) {
+      HsvPaletteCache.getInstance().whenRendered(bitmap, this::onSharedBitmapRendered);
+    }
+  }
+
+  private void onSharedBitmapRendered() {
+    sharedBitmapRendered = true;
+    invalidateSelf();
+  }
+
+  @Override
+  protected void onBoundsChange(Rect bounds) {
+    super.onBoundsChange(bounds);
+    shadersDirty = true;
+    invalidateRenderCache();
   }
 
   @Override
   public void draw(@NonNull Canvas canvas) {
+    Bitmap bitmap = getBitmap();
+    if (renderCacheEnabled
+        && bitmap != null
+        && bitmap.getWidth() == getBounds().width()
+        && bitmap.getHeight() == getBounds().height()) {
+      if (!renderCacheDirty && sharedBitmapRendered) {
+        super.draw(canvas);
+        return;
+      } else if (!sharedBitmap && bitmap.isMutable()) {
+        bitmap.eraseColor(Color.TRANSPARENT);
+        drawWheel(new Canvas(bitmap));
+        renderCacheDirty = false;
+        super.draw(canvas);
+        return;
+      }
+    }
+    drawWheel(canvas);
+  }
+
+  private void drawWheel(Canvas canvas) {
     int width = getBounds().width();
     int height = getBounds().height();
+    if (shadersDirty) {
+      buildShaders(width, height, huePaint, saturationPaint);
+      shadersDirty = false;
+    }
+    drawCircles(canvas, width, height, huePaint, saturationPaint);
+  }
+
+  /** the shared bitmap only keeps the wheel drawn with the default paints. */
+  private void invalidateRenderCache() {
+    renderCacheDirty =
+        !sharedBitmap || huePaint.getAlpha() != 255 || huePaint.getColorFilter() != null;
+  }
+
+  /** renders a wheel fitting the bitmap with the default paints. */
+  static void renderWheel(Bitmap bitmap) {
+    Paint huePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    Paint saturationPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    buildShaders(bitmap.getWidth(), bitmap.getHeight(), huePaint, saturationPaint);
+    Canvas canvas = new Canvas(bitmap);
+    drawCircles(canvas, bitmap.getWidth(), bitmap.getHeight(), huePaint, saturationPaint);
+  }
+
+  private static void buildShaders(int width, int height, Paint huePaint, Paint saturationPaint) {
     float centerX = width * 0.5f;
     float centerY = height * 0.5f;
     float radius = Math.min(width, height) * 0.5f;
@@ -61,26 +156,60 @@ public class ColorHsvPalette extends BitmapDrawable {
               Color.RED, Color.MAGENTA, Color.BLUE, Color.CYAN, Color.GREEN, Color.YELLOW, Color.RED
             },
             new float[] {0.000f, 0.166f, 0.333f, 0.499f, 0.666f, 0.833f, 0.999f});
-
     huePaint.setShader(sweepShader);
 
     Shader saturationShader =
         new RadialGradient(
             centerX, centerY, radius, Color.WHITE, 0x00FFFFFF, Shader.TileMode.CLAMP);
     saturationPaint.setShader(saturationShader);
+    shaderConstructionCount += 2;
+  }
 
+  private static void drawCircles(
+      Canvas canvas, int width, int height, Paint huePaint, Paint saturationPaint) {
+    float centerX = width * 0.5f;
+    float centerY = height * 0.5f;
+    float radius = Math.min(width, height) * 0.5f;
     canvas.drawCircle(centerX, centerY, radius, huePaint);
     canvas.drawCircle(centerX, centerY, radius, saturationPaint);
   }
 
+  /**
+   * sets whether the wheel is rendered into the drawable's bitmap once and drawn from it.
+   *
+   * @param enabled true/false flag for making enable or not.
+   */
+  public void setRenderCacheEnabled(boolean enabled) {
+    this.renderCacheEnabled = enabled;
+    invalidateRenderCache();
+    invalidateSelf();
+  }
+
+  /**
+   * gets whether the wheel is rendered into the drawable's bitmap once and drawn from it.
+   *
+   * @return true if the render cache is enabled.
+   */
+  public boolean isRenderCacheEnabled() {
+    return renderCacheEnabled;
+  }
+
+  /** gets the number of shaders constructed by all palettes, for verifying the shader cache. */
+  @VisibleForTesting
+  static int getShaderConstructionCount() {
+    return shaderConstructionCount;
+  }
+
   @Override
   public void setAlpha(int alpha) {
     huePaint.setAlpha(alpha);
+    invalidateRenderCache();
   }
 
   @Override
   public void setColorFilter(@Nullable ColorFilter colorFilter) {
     huePaint.setColorFilter(colorFilter);
+    invalidateRenderCache();
   }
 
   @Override
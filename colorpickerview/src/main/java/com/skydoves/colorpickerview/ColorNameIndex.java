@@ -0,0 +1,456 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.content.Context;
+import android.graphics.Color;
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * ColorNameIndex finds the name of the named color nearest to a color, as perceived in the CIELAB
+ * space and measured by the CIEDE2000 color difference.
+ *
+ * <p>The named colors are kept in a k-d tree by their Lab coordinates. A query collects the 16
+ * named colors nearest in Lab and ranks them by CIEDE2000, so it takes logarithmic time instead
+ * of comparing every named color. CIEDE2000 doesn't follow the Lab distance exactly, so a query
+ * may rarely miss the CIEDE2000 nearest, by far less than a noticeable difference.
+ *
+ * <p>The library bundles the CSS named colors as {@link #DEFAULT_ASSET_NAME}, loaded the first
+ * time {@link #getDefault(Context)} is called. An index of any other named colors can be created
+ * by {@link #create(int[], String[])} and stored in the same binary form by {@link
+ * #write(OutputStream)}, to be loaded by {@link #fromAsset(Context, String)}.
+ *
+ * <p>The binary form is big-endian: the magic number {@code 0x43504E49}, the version, the count
+ * of colors, the RGB colors as three bytes each, and the byte length of the names followed by the
+ * names, each a byte length followed by its UTF-8 bytes.
+ */
+@SuppressWarnings("unused")
+public final class ColorNameIndex {
+
+  /** the asset name of the bundled CSS named colors. */
+  public static final String DEFAULT_ASSET_NAME = "colorpickerview_color_names.bin";
+
+  private static final int MAGIC = 0x43504E49;
+  private static final int VERSION = 1;
+  private static final int MAX_NAME_LENGTH = 0xFF;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /** the number of named colors nearest in Lab that are ranked by CIEDE2000. */
+  private static final int CANDIDATES = 16;
+
+  private static final double[] LINEAR = new double[256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      double value = i / 255.0;
+      LINEAR[i] = value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+    }
+  }
+
+  private static ColorNameIndex defaultIndex;
+
+  private final int size;
+  private final int[] colors;
+  private final byte[] names;
+  private final int[] nameOffsets;
+
+  // the k-d tree: the lab coordinates of the named colors and their index, in the tree's order.
+  private final float[] lab;
+  private final int[] nodes;
+
+  // the state of the running search.
+  private final double[] query = new double[3];
+  private final int[] candidates = new int[CANDIDATES];
+  private final double[] candidateDistances = new double[CANDIDATES];
+  private int candidateCount;
+
+  private ColorNameIndex(int[] colors, byte[] names, int[] nameOffsets) {
+    this.size = colors.length;
+    this.colors = colors;
+    this.names = names;
+    this.nameOffsets = nameOffsets;
+    this.lab = new float[size * 3];
+    this.nodes = new int[size];
+    double[] point = new double[3];
+    for (int i = 0; i < size; i++) {
+      toLab(colors[i], point);
+      lab[i * 3] = (float) point[0];
+      lab[i * 3 + 1] = (float) point[1];
+      lab[i * 3 + 2] = (float) point[2];
+      nodes[i] = i;
+    }
+    build(0, size, 0);
+  }
+
+  /**
+   * gets the index of the CSS named colors bundled with the library, loading it the first time.
+   *
+   * @param context context.
+   * @return {@link ColorNameIndex}.
+   */
+  public static synchronized ColorNameIndex getDefault(@NonNull Context context) {
+    if (defaultIndex == null) {
+      try {
+        defaultIndex = fromAsset(context.getApplicationContext(), DEFAULT_ASSET_NAME);
+      } catch (IOException e) {
+        throw new IllegalStateException("couldn't load " + DEFAULT_ASSET_NAME, e);
+      }
+    }
+    return defaultIndex;
+  }
+
+  /**
+   * reads an index stored as an asset.
+   *
+   * @param context context.
+   * @param assetName the asset name of the index.
+   * @return {@link ColorNameIndex}.
+   */
+  public static ColorNameIndex fromAsset(@NonNull Context context, @NonNull String assetName)
+      throws IOException {
+    InputStream inputStream = context.getAssets().open(assetName);
+    try {
+      return read(inputStream);
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  /**
+   * reads an index written by {@link #write(OutputStream)}. the stream is not closed.
+   *
+   * @param inputStream the stream to read.
+   * @return {@link ColorNameIndex}.
+   */
+  public static ColorNameIndex read(@NonNull InputStream inputStream) throws IOException {
+    DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+    if (input.readInt() != MAGIC) throw new IOException("not a color name index.");
+    int version = input.readInt();
+    if (version != VERSION) throw new IOException("unsupported version " + version + ".");
+    int count = input.readInt();
+    if (count < 0) throw new IOException("invalid count " + count + ".");
+
+    byte[] rgb = new byte[count * 3];
+    input.readFully(rgb);
+    int[] colors = new int[count];
+    for (int i = 0; i < count; i++) {
+      colors[i] =
+          ((rgb[i * 3] & 0xFF) << 16) | ((rgb[i * 3 + 1] & 0xFF) << 8) | (rgb[i * 3 + 2] & 0xFF);
+    }
+
+    byte[] names = new byte[input.readInt()];
+    input.readFully(names);
+    int[] nameOffsets = new int[count];
+    int offset = 0;
+    for (int i = 0; i < count; i++) {
+      if (offset >= names.length) throw new IOException("truncated names.");
+      nameOffsets[i] = offset;
+      offset += 1 + (names[offset] & 0xFF);
+    }
+    if (offset != names.length) throw new IOException("invalid names.");
+    return new ColorNameIndex(colors, names, nameOffsets);
+  }
+
+  /**
+   * creates an index of named colors. the alpha of the colors is ignored.
+   *
+   * @param colors the colors.
+   * @param names the names of the colors, at most 255 bytes each in UTF-8.
+   * @return {@link ColorNameIndex}.
+   */
+  public static ColorNameIndex create(@NonNull int[] colors, @NonNull String[] names) {
+    if (colors.length != names.length) {
+      throw new IllegalArgumentException("colors and names must have the same length.");
+    }
+    byte[][] encoded = new byte[names.length][];
+    int length = 0;
+    for (int i = 0; i < names.length; i++) {
+      encoded[i] = names[i].getBytes(UTF_8);
+      if (encoded[i].length > MAX_NAME_LENGTH) {
+        throw new IllegalArgumentException("the name " + names[i] + " is too long.");
+      }
+      length += 1 + encoded[i].length;
+    }
+    byte[] blob = new byte[length];
+    int[] nameOffsets = new int[names.length];
+    int[] rgbColors = new int[colors.length];
+    int offset = 0;
+    for (int i = 0; i < names.length; i++) {
+      nameOffsets[i] = offset;
+      blob[offset++] = (byte) encoded[i].length;
+      System.arraycopy(encoded[i], 0, blob, offset, encoded[i].length);
+      offset += encoded[i].length;
+      rgbColors[i] = colors[i] & 0xFFFFFF;
+    }
+    return new ColorNameIndex(rgbColors, blob, nameOffsets);
+  }
+
+  /**
+   * writes the index in its binary form, which can be read by {@link #read(InputStream)}. the
+   * stream is not closed.
+   *
+   * @param outputStream the stream to write.
+   */
+  public void write(@NonNull OutputStream outputStream) throws IOException {
+    DataOutputStream output = new DataOutputStream(outputStream);
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(size);
+    for (int color : colors) {
+      output.writeByte(color >> 16);
+      output.writeByte(color >> 8);
+      output.writeByte(color);
+    }
+    output.writeInt(names.length);
+    output.write(names);
+    output.flush();
+  }
+
+  /**
+   * gets the number of named colors.
+   *
+   * @return the number of named colors.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * gets the name of the named color nearest to a color. the alpha of the color is ignored.
+   *
+   * @param color color.
+   * @return the name, or null if the index is empty.
+   */
+  public @Nullable String getNearestName(@ColorInt int color) {
+    int index = nearest(color);
+    if (index < 0) return null;
+    int offset = nameOffsets[index];
+    return new String(names, offset + 1, names[offset] & 0xFF, UTF_8);
+  }
+
+  /**
+   * gets the named color nearest to a color. the alpha of the color is ignored.
+   *
+   * @param color color.
+   * @return the opaque named color, or the color itself if the index is empty.
+   */
+  public @ColorInt int getNearestColor(@ColorInt int color) {
+    int index = nearest(color);
+    return index < 0 ? color : colors[index] | 0xFF000000;
+  }
+
+  /** finds the index of the named color nearest to a color, or -1 if the index is empty. */
+  private synchronized int nearest(@ColorInt int color) {
+    if (size == 0) return -1;
+    toLab(color, query);
+    candidateCount = 0;
+    search(0, size, 0);
+
+    int best = -1;
+    double bestDifference = Double.MAX_VALUE;
+    for (int i = 0; i < candidateCount; i++) {
+      int node = candidates[i];
+      double difference =
+          ciede2000(
+              query[0], query[1], query[2], lab[node * 3], lab[node * 3 + 1], lab[node * 3 + 2]);
+      if (difference < bestDifference) {
+        bestDifference = difference;
+        best = nodes[node];
+      }
+    }
+    return best;
+  }
+
+  /** collects the nearest named colors in the Lab space into the sorted candidates. */
+  private void search(int from, int to, int axis) {
+    if (from >= to) return;
+    int median = (from + to) >>> 1;
+    double dl = query[0] - lab[median * 3];
+    double da = query[1] - lab[median * 3 + 1];
+    double db = query[2] - lab[median * 3 + 2];
+    offer(median, dl * dl + da * da + db * db);
+
+    double delta = axis == 0 ? dl : axis == 1 ? da : db;
+    int next = axis == 2 ? 0 : axis + 1;
+    if (delta < 0) {
+      search(from, median, next);
+      if (isWithinCandidates(delta * delta)) search(median + 1, to, next);
+    } else {
+      search(median + 1, to, next);
+      if (isWithinCandidates(delta * delta)) search(from, median, next);
+    }
+  }
+
+  private boolean isWithinCandidates(double distance) {
+    return candidateCount < CANDIDATES || distance < candidateDistances[CANDIDATES - 1];
+  }
+
+  private void offer(int node, double distance) {
+    if (!isWithinCandidates(distance)) return;
+    int i = candidateCount < CANDIDATES ? candidateCount++ : CANDIDATES - 1;
+    while (i > 0 && candidateDistances[i - 1] > distance) {
+      candidates[i] = candidates[i - 1];
+      candidateDistances[i] = candidateDistances[i - 1];
+      i--;
+    }
+    candidates[i] = node;
+    candidateDistances[i] = distance;
+  }
+
+  /** arranges the range as a subtree, placing its median by the axis in the middle. */
+  private void build(int from, int to, int axis) {
+    while (to - from > 1) {
+      int median = (from + to) >>> 1;
+      select(from, to - 1, median, axis);
+      int next = axis == 2 ? 0 : axis + 1;
+      build(from, median, next);
+      from = median + 1;
+      axis = next;
+    }
+  }
+
+  /** moves the k-th smallest color of the range by the axis to k, using quickselect. */
+  private void select(int left, int right, int k, int axis) {
+    while (left < right) {
+      float pivot = lab[((left + right) >>> 1) * 3 + axis];
+      int i = left;
+      int j = right;
+      while (i <= j) {
+        while (lab[i * 3 + axis] < pivot) i++;
+        while (lab[j * 3 + axis] > pivot) j--;
+        if (i <= j) {
+          swap(i, j);
+          i++;
+          j--;
+        }
+      }
+      if (k <= j) {
+        right = j;
+      } else if (k >= i) {
+        left = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void swap(int i, int j) {
+    for (int axis = 0; axis < 3; axis++) {
+      float value = lab[i * 3 + axis];
+      lab[i * 3 + axis] = lab[j * 3 + axis];
+      lab[j * 3 + axis] = value;
+    }
+    int node = nodes[i];
+    nodes[i] = nodes[j];
+    nodes[j] = node;
+  }
+
+  /** converts an sRGB color to the CIELAB space under the D65 illuminant. */
+  private static void toLab(int color, double[] out) {
+    double red = LINEAR[Color.red(color)];
+    double green = LINEAR[Color.green(color)];
+    double blue = LINEAR[Color.blue(color)];
+    double x = (0.4124564 * red + 0.3575761 * green + 0.1804375 * blue) / 0.95047;
+    double y = 0.2126729 * red + 0.7151522 * green + 0.0721750 * blue;
+    double z = (0.0193339 * red + 0.1191920 * green + 0.9503041 * blue) / 1.08883;
+    double fx = labCurve(x);
+    double fy = labCurve(y);
+    double fz = labCurve(z);
+    out[0] = 116 * fy - 16;
+    out[1] = 500 * (fx - fy);
+    out[2] = 200 * (fy - fz);
+  }
+
+  private static double labCurve(double value) {
+    return value > 216.0 / 24389 ? Math.cbrt(value) : (24389.0 / 27 * value + 16) / 116;
+  }
+
+  /** computes the CIEDE2000 color difference of two Lab colors. */
+  static double ciede2000(double l1, double a1, double b1, double l2, double a2, double b2) {
+    double c1 = Math.hypot(a1, b1);
+    double c2 = Math.hypot(a2, b2);
+    double meanC = (c1 + c2) / 2;
+    double meanC7 = Math.pow(meanC, 7);
+    double g = 0.5 * (1 - Math.sqrt(meanC7 / (meanC7 + 6103515625.0)));
+    double a1p = a1 * (1 + g);
+    double a2p = a2 * (1 + g);
+    double c1p = Math.hypot(a1p, b1);
+    double c2p = Math.hypot(a2p, b2);
+    double h1p = hueAngle(a1p, b1);
+    double h2p = hueAngle(a2p, b2);
+
+    double deltaL = l2 - l1;
+    double deltaC = c2p - c1p;
+    double deltaH = 0;
+    if (c1p * c2p != 0) {
+      double dh = h2p - h1p;
+      if (dh > 180) {
+        dh -= 360;
+      } else if (dh < -180) {
+        dh += 360;
+      }
+      deltaH = 2 * Math.sqrt(c1p * c2p) * Math.sin(Math.toRadians(dh / 2));
+    }
+
+    double meanL = (l1 + l2) / 2;
+    double meanCp = (c1p + c2p) / 2;
+    double meanH = h1p + h2p;
+    if (c1p * c2p != 0) {
+      if (Math.abs(h1p - h2p) <= 180) {
+        meanH /= 2;
+      } else if (meanH < 360) {
+        meanH = (meanH + 360) / 2;
+      } else {
+        meanH = (meanH - 360) / 2;
+      }
+    }
+    double t =
+        1
+            - 0.17 * Math.cos(Math.toRadians(meanH - 30))
+            + 0.24 * Math.cos(Math.toRadians(2 * meanH))
+            + 0.32 * Math.cos(Math.toRadians(3 * meanH + 6))
+            - 0.20 * Math.cos(Math.toRadians(4 * meanH - 63));
+    double deltaTheta = 30 * Math.exp(-Math.pow((meanH - 275) / 25, 2));
+    double meanCp7 = Math.pow(meanCp, 7);
+    double rc = 2 * Math.sqrt(meanCp7 / (meanCp7 + 6103515625.0));
+    double meanL50 = (meanL - 50) * (meanL - 50);
+    double sl = 1 + 0.015 * meanL50 / Math.sqrt(20 + meanL50);
+    double sc = 1 + 0.045 * meanCp;
+    double sh = 1 + 0.015 * meanCp * t;
+    double rt = -Math.sin(Math.toRadians(2 * deltaTheta)) * rc;
+
+    double lightness = deltaL / sl;
+    double chroma = deltaC / sc;
+    double hue = deltaH / sh;
+    return Math.sqrt(lightness * lightness + chroma * chroma + hue * hue + rt * chroma * hue);
+  }
+
+  private static double hueAngle(double a, double b) {
+    if (a == 0 && b == 0) return 0;
+    double angle = Math.toDegrees(Math.atan2(b, a));
+    return angle < 0 ? angle + 360 : angle;
+  }
+}
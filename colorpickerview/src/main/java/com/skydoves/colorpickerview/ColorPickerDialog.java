@@ -199,7 +199,7 @@ public class ColorPickerDialog extends AlertDialog {
             ((ColorListener) colorListener).onColorSelected(getColorPickerView().getColor(), true);
           } else if (colorListener instanceof ColorEnvelopeListener) {
             ((ColorEnvelopeListener) colorListener)
-              .onColorSelected(getColorPickerView().getColorEnvelope(), true);
+              .onColorSelected(new ColorEnvelope(getColorPickerView().getColor()), true);
           }
           if (getColorPickerView() != null) {
             ColorPickerPreferenceManager.getInstance(getContext())
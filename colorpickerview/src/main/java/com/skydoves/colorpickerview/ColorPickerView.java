@@ -21,17 +21,22 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Matrix;
 import android.graphics.Point;
+import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Handler;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.MotionEvent;
+import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
@@ -46,6 +51,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.Px;
 import androidx.appcompat.content.res.AppCompatResources;
 import androidx.core.content.ContextCompat;
+import androidx.core.view.ViewCompat;
 import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleObserver;
 import androidx.lifecycle.LifecycleOwner;
@@ -56,9 +62,12 @@ import com.skydoves.colorpickerview.flag.FlagView;
 import com.skydoves.colorpickerview.listeners.ColorEnvelopeListener;
 import com.skydoves.colorpickerview.listeners.ColorListener;
 import com.skydoves.colorpickerview.listeners.ColorPickerViewListener;
+import com.skydoves.colorpickerview.listeners.DominantColorsListener;
 import com.skydoves.colorpickerview.preference.ColorPickerPreferenceManager;
 import com.skydoves.colorpickerview.sliders.AlphaSlideBar;
 import com.skydoves.colorpickerview.sliders.BrightnessSlideBar;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 /**
  * ColorPickerView implements getting HSV colors, ARGB values, Hex color codes from any image
@@ -72,11 +81,23 @@ import com.skydoves.colorpickerview.sliders.BrightnessSlideBar;
 @SuppressWarnings("unused")
 public class ColorPickerView extends FrameLayout implements LifecycleObserver {
 
+  /**
+   * palettes bigger than this are sampled from the bitmap directly instead of a snapshot. about 2
+   * megapixels, whose snapshot retains 8 MB.
+   */
+  public static final long DEFAULT_PALETTE_SNAPSHOT_MAX_PIXELS = 2048L * 1024L;
+
+  /** the maximum number of colors of {@link #setSnapColors(int[])}. */
+  public static final int MAX_SNAP_COLORS = SnapColorTable.MAX_COLORS;
+
+  /** the default interval of {@link ActionMode#THROTTLE}. */
+  public static final long DEFAULT_THROTTLE_DURATION = 100L;
+
   @ColorInt
   private int selectedPureColor;
   @ColorInt
   private int selectedColor;
-  private Point selectedPoint;
+  private final PointF selectedPoint = new PointF();
   private ImageView palette;
   private ImageView selector;
   private FlagView flagView;
@@ -85,11 +106,82 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
   private AlphaSlideBar alphaSlideBar;
   private BrightnessSlideBar brightnessSlider;
   public ColorPickerViewListener colorListener;
+  private ConflatedListenerDispatcher listenerDispatcher;
   private long debounceDuration = 0;
   private final Handler debounceHandler = new Handler();
+  private final Runnable debounceRunnable =
+    () -> {
+      fireColorListener(getColor(), true);
+      notifyToFlagView((int) selectedPoint.x, (int) selectedPoint.y);
+    };
+  private ColorEnvelope colorEnvelope;
+
+  // state of the THROTTLE and FRAME action modes.
+  private long throttleDuration = DEFAULT_THROTTLE_DURATION;
+  private boolean dispatchWindowOpen = false;
+  private boolean dispatchPending = false;
+  private boolean pendingFromPalette = false;
+  private int pendingColor;
+  private final Runnable throttleRunnable = this::onDispatchWindowClosed;
+  private final Choreographer.FrameCallback dispatchFrameCallback =
+    frameTimeNanos -> onDispatchWindowClosed();
+
+  // scratch state reused by the touch path, so dragging doesn't allocate on every event.
+  private final PointF mappedPoint = new PointF();
+
+  private boolean touchCoalescingEnabled = false;
+  private boolean touchFramePending = false;
+  private float pendingTouchX;
+  private float pendingTouchY;
+  private final Choreographer.FrameCallback touchFrameCallback =
+    frameTimeNanos -> {
+      touchFramePending = false;
+      onTouchReceived(pendingTouchX, pendingTouchY, MotionEvent.ACTION_MOVE);
+    };
+
+  private boolean paletteSnapshotEnabled = true;
+  private long paletteSnapshotMaxPixels = DEFAULT_PALETTE_SNAPSHOT_MAX_PIXELS;
+  private SamplingKernel samplingKernel = SamplingKernel.PIXEL;
+  private int samplingKernelSize = 3;
+  private SummedAreaTable.Kernel kernel;
+
+  // the sampler of the current palette, chosen once per palette and laid out lazily.
+  private PaletteSampler paletteSampler;
+  private PaletteSampler customPaletteSampler;
+  private boolean paletteSamplerDirty = true;
+  private DominantColorExtractor dominantColorExtractor;
+
+  // the allowed colors the sampled colors snap to, and the table looking them up.
+  private int[] snapColors;
+  private SnapColorTable snapColorTable;
+  private SnapColorTable.BuildTask snapColorTableTask;
+  private final PointF snappedPoint = new PointF();
+  // the points of the allowed colors by their indexes as x and y pairs, NaN until looked up.
+  private float[] snapPoints;
+  // the selection of selectByColor waiting for the color index of an image palette.
+  private Runnable pendingColorSelection;
+  private final HsvWheelSampler hsvWheelSampler = new HsvWheelSampler();
+
+  // the wheel shared through the HsvPaletteCache, referenced while attached to a window.
+  private boolean hsvPaletteCacheEnabled = true;
+  private Bitmap sharedWheel;
+  private boolean sharedWheelRetained = false;
 
   private ActionMode actionMode = ActionMode.ALWAYS;
 
+  // whether the palette, selector and flag are drawn on the picker's canvas instead of as children.
+  private boolean singleCanvasEnabled = false;
+  private final Rect partContainer = new Rect();
+  private final Rect partFrame = new Rect();
+  // the bounds of the selector and the flag where they were drawn last in the single-canvas mode.
+  private final Rect drawnPartsBounds = new Rect();
+  private final Rect dirtyPartsBounds = new Rect();
+  private final Rect partBounds = new Rect();
+
+  // the instance state waiting for the first layout, and whether an instance state was restored.
+  private SavedState pendingSavedState;
+  private boolean instanceStateRestored = false;
+
   @FloatRange(from = 0.0, to = 1.0)
   private float selector_alpha = 1.0f;
 
@@ -161,15 +253,56 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
         int actionMode = a.getInteger(R.styleable.ColorPickerView_actionMode, 0);
         if (actionMode == 0) {
           this.actionMode = ActionMode.ALWAYS;
-        } else if (actionMode == 1) this.actionMode = ActionMode.LAST;
+        } else if (actionMode == 1) {
+          this.actionMode = ActionMode.LAST;
+        } else if (actionMode == 2) {
+          this.actionMode = ActionMode.THROTTLE;
+        } else if (actionMode == 3) this.actionMode = ActionMode.FRAME;
       }
       if (a.hasValue(R.styleable.ColorPickerView_debounceDuration)) {
         this.debounceDuration =
           a.getInteger(R.styleable.ColorPickerView_debounceDuration, (int) debounceDuration);
       }
+      if (a.hasValue(R.styleable.ColorPickerView_throttleDuration)) {
+        this.throttleDuration =
+          a.getInteger(R.styleable.ColorPickerView_throttleDuration, (int) throttleDuration);
+      }
+      if (a.hasValue(R.styleable.ColorPickerView_touchCoalescing)) {
+        this.touchCoalescingEnabled =
+          a.getBoolean(R.styleable.ColorPickerView_touchCoalescing, touchCoalescingEnabled);
+      }
+      if (a.hasValue(R.styleable.ColorPickerView_singleCanvas)) {
+        this.singleCanvasEnabled =
+          a.getBoolean(R.styleable.ColorPickerView_singleCanvas, singleCanvasEnabled);
+      }
+      if (a.hasValue(R.styleable.ColorPickerView_snapColors)) {
+        int snapColorsId = a.getResourceId(R.styleable.ColorPickerView_snapColors, 0);
+        if (snapColorsId != 0) setSnapColors(getColorArray(snapColorsId));
+      }
       if (a.hasValue(R.styleable.ColorPickerView_preferenceName)) {
         this.preferenceName = a.getString(R.styleable.ColorPickerView_preferenceName);
       }
+      if (a.hasValue(R.styleable.ColorPickerView_hsvPaletteCache)) {
+        this.hsvPaletteCacheEnabled =
+          a.getBoolean(R.styleable.ColorPickerView_hsvPaletteCache, hsvPaletteCacheEnabled);
+      }
+      if (a.hasValue(R.styleable.ColorPickerView_paletteSnapshot)) {
+        this.paletteSnapshotEnabled =
+          a.getBoolean(R.styleable.ColorPickerView_paletteSnapshot, paletteSnapshotEnabled);
+      }
+      if (a.hasValue(R.styleable.ColorPickerView_samplingKernel)) {
+        int samplingKernel = a.getInteger(R.styleable.ColorPickerView_samplingKernel, 0);
+        if (samplingKernel == 0) {
+          this.samplingKernel = SamplingKernel.PIXEL;
+        } else if (samplingKernel == 1) {
+          this.samplingKernel = SamplingKernel.BOX;
+        } else if (samplingKernel == 2) this.samplingKernel = SamplingKernel.GAUSSIAN;
+      }
+      if (a.hasValue(R.styleable.ColorPickerView_samplingKernelSize)) {
+        this.samplingKernelSize =
+          a.getInteger(R.styleable.ColorPickerView_samplingKernelSize, samplingKernelSize);
+      }
+      this.kernel = SummedAreaTable.Kernel.of(samplingKernel, samplingKernelSize);
       if (a.hasValue(R.styleable.ColorPickerView_initialColor)) {
         setInitialColor(a.getColor(R.styleable.ColorPickerView_initialColor, Color.WHITE));
       }
@@ -180,6 +313,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
 
   private void onCreate() {
     setPadding(0, 0, 0, 0);
+    if (singleCanvasEnabled) setWillNotDraw(false);
     palette = new ImageView(getContext());
     if (paletteDrawable != null) {
       palette.setImageDrawable(paletteDrawable);
@@ -188,7 +322,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
     FrameLayout.LayoutParams paletteParam =
       new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
     paletteParam.gravity = Gravity.CENTER;
-    addView(palette, paletteParam);
+    addPart(palette, paletteParam);
 
     selector = new ImageView(getContext());
     if (selectorDrawable != null) {
@@ -203,7 +337,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
       selectorParam.height = SizeUtils.dp2Px(getContext(), selectorSize);
     }
     selectorParam.gravity = Gravity.CENTER;
-    addView(selector, selectorParam);
+    addPart(selector, selectorParam);
     selector.setAlpha(selector_alpha);
 
     getViewTreeObserver()
@@ -220,36 +354,263 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
   @Override
   protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
     super.onSizeChanged(width, height, oldWidth, oldHeight);
+    if (palette.getDrawable() == null || isSharedWheelResized(width, height)) {
+      palette.setImageDrawable(createHsvPalette(width, height));
+    }
+    updatePaletteSampler();
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    if (sharedWheel != null && !sharedWheelRetained) {
+      HsvPaletteCache.getInstance().retain(sharedWheel);
+      sharedWheelRetained = true;
+    }
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    cancelPendingTouchFrame();
+    cancelPendingDispatch();
+    if (sharedWheel != null && sharedWheelRetained) {
+      HsvPaletteCache.getInstance().release(sharedWheel);
+      sharedWheelRetained = false;
+    }
+  }
 
-    if (palette.getDrawable() == null) {
-      Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-      palette.setImageDrawable(new ColorHsvPalette(getResources(), bitmap));
+  /**
+   * creates a {@link ColorHsvPalette} drawing a wheel shared by the {@link HsvPaletteCache}, or
+   * drawing the wheel without any bitmap if the cache is disabled.
+   */
+  private ColorHsvPalette createHsvPalette(int width, int height) {
+    releaseSharedWheel();
+    if (!hsvPaletteCacheEnabled) {
+      return new ColorHsvPalette(getResources());
+    }
+    sharedWheel = HsvPaletteCache.getInstance().acquire(width, height);
+    sharedWheelRetained = true;
+    if (!ViewCompat.isAttachedToWindow(this)) {
+      // referenced again when attached, so a view which is never attached doesn't pin it.
+      HsvPaletteCache.getInstance().release(sharedWheel);
+      sharedWheelRetained = false;
+    }
+    return new ColorHsvPalette(getResources(), sharedWheel, true);
+  }
+
+  /** the shared wheel is drawn at its own size, so another wheel is shared when resized. */
+  private boolean isSharedWheelResized(int width, int height) {
+    return sharedWheel != null
+      && width > 0
+      && height > 0
+      && palette.getDrawable() instanceof ColorHsvPalette
+      && ((ColorHsvPalette) palette.getDrawable()).getBitmap() == sharedWheel
+      && (sharedWheel.getWidth() != width || sharedWheel.getHeight() != height);
+  }
+
+  private void releaseSharedWheel() {
+    if (sharedWheel != null && sharedWheelRetained) {
+      HsvPaletteCache.getInstance().release(sharedWheel);
+    }
+    sharedWheel = null;
+    sharedWheelRetained = false;
+  }
+
+  @Override
+  protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+    if (!singleCanvasEnabled || palette == null) {
+      super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+      return;
+    }
+    // measured by the palette, as the FrameLayout does with the palette as its largest child.
+    measureChild(palette, widthMeasureSpec, heightMeasureSpec);
+    int width = Math.max(palette.getMeasuredWidth(), getSuggestedMinimumWidth());
+    int height = Math.max(palette.getMeasuredHeight(), getSuggestedMinimumHeight());
+    setMeasuredDimension(
+      resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+  }
+
+  @Override
+  protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+    super.onLayout(changed, left, top, right, bottom);
+    if (singleCanvasEnabled) layoutParts();
+    // the palette's image matrix is reconfigured whenever it is laid out.
+    paletteSamplerDirty = true;
+    getPaletteSampler();
+  }
+
+  @Override
+  protected void onDraw(Canvas canvas) {
+    super.onDraw(canvas);
+    if (singleCanvasEnabled) {
+      drawPart(canvas, palette);
+      drawPart(canvas, selector);
+      drawPart(canvas, flagView);
+      drawnPartsBounds.setEmpty();
+      unionPartBounds(drawnPartsBounds, selector);
+      unionPartBounds(drawnPartsBounds, flagView);
+    }
+  }
+
+  /** adds a part of the picker as a child, or keeps it detached in the single-canvas mode. */
+  private void addPart(View part, ViewGroup.LayoutParams params) {
+    if (params == null) {
+      params = generateDefaultLayoutParams();
+    } else if (!checkLayoutParams(params)) {
+      params = generateLayoutParams(params);
+    }
+    if (singleCanvasEnabled) {
+      part.setLayoutParams(params);
+      layoutPart(part);
+      invalidate();
+    } else {
+      addView(part, params);
     }
   }
 
+  private void removePart(View part) {
+    if (!singleCanvasEnabled) removeView(part);
+  }
+
+  private void layoutParts() {
+    layoutPart(palette);
+    layoutPart(selector);
+    layoutPart(flagView);
+  }
+
+  /** measures and lays out a detached part on the picker, as the FrameLayout does a child. */
+  private void layoutPart(View part) {
+    if (part == null || getWidth() == 0 || getHeight() == 0) return;
+    measureChild(
+      part,
+      MeasureSpec.makeMeasureSpec(getWidth(), MeasureSpec.EXACTLY),
+      MeasureSpec.makeMeasureSpec(getHeight(), MeasureSpec.EXACTLY));
+    int gravity = ((LayoutParams) part.getLayoutParams()).gravity;
+    if (gravity == -1) gravity = Gravity.TOP | Gravity.START;
+    partContainer.set(0, 0, getWidth(), getHeight());
+    Gravity.apply(
+      gravity,
+      part.getMeasuredWidth(),
+      part.getMeasuredHeight(),
+      partContainer,
+      partFrame,
+      getLayoutDirection());
+    part.layout(partFrame.left, partFrame.top, partFrame.right, partFrame.bottom);
+    if (part == palette) paletteSamplerDirty = true;
+  }
+
+  /**
+   * draws a detached part at its position. moving a part only changes the translation of the
+   * canvas, and the flag is rotated only while it is flipped.
+   */
+  private void drawPart(Canvas canvas, View part) {
+    if (part == null || part.getVisibility() != VISIBLE || part.getAlpha() <= 0f) return;
+    if (part.isLayoutRequested()) layoutPart(part);
+    int saveCount = canvas.save();
+    canvas.translate(part.getX(), part.getY());
+    if (part.getRotation() != 0f) {
+      canvas.rotate(part.getRotation(), part.getPivotX(), part.getPivotY());
+    }
+    if (part.getAlpha() < 1f) {
+      canvas.saveLayerAlpha(
+        0,
+        0,
+        part.getWidth(),
+        part.getHeight(),
+        (int) (part.getAlpha() * 255),
+        Canvas.ALL_SAVE_FLAG);
+    }
+    part.draw(canvas);
+    canvas.restoreToCount(saveCount);
+  }
+
+  /**
+   * redraws the selector and the flag drawn on the picker's canvas, where they were drawn last and
+   * where they are now. child views redraw themselves.
+   */
+  private void invalidateParts() {
+    if (!singleCanvasEnabled) return;
+    dirtyPartsBounds.set(drawnPartsBounds);
+    unionPartBounds(dirtyPartsBounds, selector);
+    unionPartBounds(dirtyPartsBounds, flagView);
+    if (!dirtyPartsBounds.isEmpty()) invalidate(dirtyPartsBounds);
+  }
+
+  /** adds the bounds of a detached part on the picker, with a pixel of antialiasing around. */
+  private void unionPartBounds(Rect bounds, View part) {
+    if (part == null) return;
+    part.getHitRect(partBounds);
+    if (partBounds.isEmpty()) return;
+    partBounds.inset(-1, -1);
+    bounds.union(partBounds);
+  }
+
   private void onFinishInflated() {
     if (getParent() != null && getParent() instanceof ViewGroup) {
       ((ViewGroup) getParent()).setClipChildren(false);
     }
 
-    if (getPreferenceName() != null) {
-      preferenceManager.restoreColorPickerData(this);
-      final int persisted = preferenceManager.getColor(getPreferenceName(), -1);
-      if (palette.getDrawable() instanceof ColorHsvPalette && persisted != -1) {
-        post(
-          () -> {
-            try {
-              selectByHsvColor(persisted);
-            } catch (IllegalAccessException e) {
-              e.printStackTrace();
-            }
-          });
-      }
+    if (pendingSavedState != null) {
+      // the instance state is restored instead of the preference, without any disk I/O.
+      applySavedState(pendingSavedState);
+      pendingSavedState = null;
+    } else if (getPreferenceName() != null) {
+      // restores once the preference is loaded, without waiting for the disk on the main thread.
+      preferenceManager.runWhenLoaded(this::restoreFromPreference);
     } else {
       selectCenter();
     }
   }
 
+  private void restoreFromPreference() {
+    if (getPreferenceName() == null || instanceStateRestored) return;
+    preferenceManager.restoreColorPickerData(this);
+    final int persisted = preferenceManager.getColor(getPreferenceName(), -1);
+    if (palette.getDrawable() instanceof ColorHsvPalette && persisted != -1) {
+      post(
+        () -> {
+          try {
+            selectByHsvColor(persisted);
+          } catch (IllegalAccessException e) {
+            e.printStackTrace();
+          }
+        });
+    }
+  }
+
+  @Override
+  protected Parcelable onSaveInstanceState() {
+    SavedState state = new SavedState(super.onSaveInstanceState());
+    state.pureColor = selectedPureColor;
+    state.selectorX = getWidth() > 0 ? selectedPoint.x / getWidth() : 0.5f;
+    state.selectorY = getMeasuredHeight() > 0 ? selectedPoint.y / getMeasuredHeight() : 0.5f;
+    return state;
+  }
+
+  @Override
+  protected void onRestoreInstanceState(Parcelable state) {
+    if (!(state instanceof SavedState)) {
+      super.onRestoreInstanceState(state);
+      return;
+    }
+    SavedState savedState = (SavedState) state;
+    super.onRestoreInstanceState(savedState.getSuperState());
+    instanceStateRestored = true;
+    if (getWidth() > 0 && getMeasuredHeight() > 0) {
+      applySavedState(savedState);
+    } else {
+      pendingSavedState = savedState;
+    }
+  }
+
+  /** moves the selector to the restored position, notifying the listener once. */
+  private void applySavedState(SavedState state) {
+    int x = Math.round(state.selectorX * getWidth());
+    int y = Math.round(state.selectorY * getMeasuredHeight());
+    moveSelectorPoint(x, y, state.pureColor);
+  }
+
   /**
    * initialize the {@link ColorPickerView} by {@link ColorPickerView.Builder}.
    *
@@ -268,9 +629,23 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
     this.flag_alpha = builder.flag_alpha;
     this.selectorSize = SizeUtils.dp2Px(getContext(), builder.selectorSize);
     this.debounceDuration = builder.debounceDuration;
+    this.throttleDuration = builder.throttleDuration;
+    this.paletteSnapshotEnabled = builder.paletteSnapshotEnabled;
+    this.hsvPaletteCacheEnabled = builder.hsvPaletteCacheEnabled;
+    this.touchCoalescingEnabled = builder.touchCoalescingEnabled;
+    this.singleCanvasEnabled = builder.singleCanvasEnabled;
+    this.samplingKernel = builder.samplingKernel;
+    this.samplingKernelSize = builder.samplingKernelSize;
+    this.kernel = SummedAreaTable.Kernel.of(samplingKernel, samplingKernelSize);
     onCreate();
 
-    if (builder.colorPickerViewListener != null) setColorListener(builder.colorPickerViewListener);
+    if (builder.colorPickerViewListener != null) {
+      if (builder.colorListenerExecutor != null) {
+        setColorListener(builder.colorPickerViewListener, builder.colorListenerExecutor);
+      } else {
+        setColorListener(builder.colorPickerViewListener);
+      }
+    }
     if (builder.alphaSlideBar != null) attachAlphaSlider(builder.alphaSlideBar);
     if (builder.brightnessSlider != null) attachBrightnessSlider(builder.brightnessSlider);
     if (builder.actionMode != null) this.actionMode = builder.actionMode;
@@ -278,6 +653,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
     if (builder.preferenceName != null) setPreferenceName(builder.preferenceName);
     if (builder.initialColor != 0) setInitialColor(builder.initialColor);
     if (builder.lifecycleOwner != null) setLifecycleOwner(builder.lifecycleOwner);
+    if (builder.snapColors != null) setSnapColors(builder.snapColors);
   }
 
   @SuppressLint("ClickableViewAccessibility")
@@ -290,11 +666,23 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
       case MotionEvent.ACTION_DOWN:
       case MotionEvent.ACTION_MOVE:
       case MotionEvent.ACTION_UP:
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) pendingColorSelection = null;
         if (getFlagView() != null) getFlagView().receiveOnTouchEvent(event);
         selector.setPressed(true);
-        return onTouchReceived(event);
+        if (touchCoalescingEnabled && event.getActionMasked() == MotionEvent.ACTION_MOVE) {
+          pendingTouchX = event.getX();
+          pendingTouchY = event.getY();
+          if (!touchFramePending) {
+            touchFramePending = true;
+            Choreographer.getInstance().postFrameCallback(touchFrameCallback);
+          }
+          return true;
+        }
+        cancelPendingTouchFrame();
+        return onTouchReceived(event.getX(), event.getY(), event.getAction());
       default:
         selector.setPressed(false);
+        invalidateParts();
         return false;
     }
   }
@@ -302,23 +690,31 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
   /**
    * notify to the other views by the onTouchEvent.
    *
-   * @param event {@link MotionEvent}.
+   * @param x coordinate x of the touch.
+   * @param y coordinate y of the touch.
+   * @param action the action of the touch.
    * @return notified or not.
    */
   @MainThread
-  private boolean onTouchReceived(final MotionEvent event) {
-    Point snapPoint =
-      PointMapper.getColorPoint(this, new Point((int) event.getX(), (int) event.getY()));
-    int pixelColor = getColorFromBitmap(snapPoint.x, snapPoint.y);
+  private boolean onTouchReceived(float x, float y, int action) {
+    PointMapper.getColorPoint(this, (int) x, (int) y, mappedPoint);
+    int snapX = (int) mappedPoint.x;
+    int snapY = (int) mappedPoint.y;
+    int pixelColor = getColorFromBitmap(snapX, snapY);
+    if (snapColorTable != null) {
+      pixelColor = snapColor(pixelColor, mappedPoint);
+      snapX = (int) mappedPoint.x;
+      snapY = (int) mappedPoint.y;
+    }
 
     this.selectedPureColor = pixelColor;
     this.selectedColor = pixelColor;
-    this.selectedPoint = PointMapper.getColorPoint(this, new Point(snapPoint.x, snapPoint.y));
-    setCoordinate(snapPoint.x, snapPoint.y);
+    this.selectedPoint.set(snapX, snapY);
+    setCoordinate(snapX, snapY);
 
     if (actionMode == ActionMode.LAST) {
-      notifyToFlagView(this.selectedPoint);
-      if (event.getAction() == MotionEvent.ACTION_UP) {
+      notifyToFlagView(snapX, snapY);
+      if (action == MotionEvent.ACTION_UP) {
         notifyColorChanged();
       }
     } else {
@@ -327,66 +723,465 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
     return true;
   }
 
+  /** drops a coalesced move which has not been processed yet. */
+  private void cancelPendingTouchFrame() {
+    if (touchFramePending) {
+      touchFramePending = false;
+      Choreographer.getInstance().removeFrameCallback(touchFrameCallback);
+    }
+  }
+
+  /**
+   * sets whether move events should be coalesced and processed at most once per frame.
+   *
+   * <p>When enabled, only the latest position of the moves delivered within a frame is sampled,
+   * and the selector, flag and listeners are updated once on the next frame. Down and up events
+   * are always processed immediately. Attached sliders follow this option as well.
+   *
+   * @param enabled true/false flag for making enable or not.
+   */
+  public void setTouchCoalescingEnabled(boolean enabled) {
+    this.touchCoalescingEnabled = enabled;
+    if (!enabled) cancelPendingTouchFrame();
+  }
+
+  /**
+   * gets whether move events are coalesced and processed at most once per frame.
+   *
+   * @return true if move events are coalesced.
+   */
+  public boolean isTouchCoalescingEnabled() {
+    return touchCoalescingEnabled;
+  }
+
+  /**
+   * sets whether the palette, selector and flag are drawn on the canvas of the picker instead of
+   * being its child views.
+   *
+   * <p>In the single-canvas mode the picker has no child views. Dragging the selector doesn't
+   * request any layout and only translates the canvas when drawing the selector and the flag, and
+   * only the old and new bounds of the selector and the flag are invalidated. The listeners behave
+   * the same in both modes. Drawables of the parts aren't animated, and the fade
+   * animations of {@link FlagMode#FADE} aren't played in this mode.
+   *
+   * @param enabled true/false flag for making enable or not.
+   */
+  public void setSingleCanvasEnabled(boolean enabled) {
+    if (singleCanvasEnabled == enabled) return;
+    if (palette == null) {
+      // the parts aren't created yet, and are added by the mode when they are.
+      singleCanvasEnabled = enabled;
+      return;
+    }
+    if (enabled) {
+      removeView(palette);
+      removeView(selector);
+      if (flagView != null) removeView(flagView);
+      singleCanvasEnabled = true;
+      setWillNotDraw(false);
+      layoutParts();
+    } else {
+      singleCanvasEnabled = false;
+      addView(palette);
+      addView(selector);
+      if (flagView != null) addView(flagView);
+    }
+    paletteSamplerDirty = true;
+    invalidate();
+  }
+
+  /**
+   * gets whether the palette, selector and flag are drawn on the canvas of the picker.
+   *
+   * @return true if the single-canvas mode is enabled.
+   */
+  public boolean isSingleCanvasEnabled() {
+    return singleCanvasEnabled;
+  }
+
+  /**
+   * sets the allowed colors which the colors selected from the palette snap to.
+   *
+   * <p>A color sampled by touch or {@link #setSelectorPoint(int, int)} is replaced by the nearest
+   * allowed color using a lookup table, and the selector moves to the point of the palette
+   * showing it. The table is built on a background thread, so snapping starts when it's built,
+   * and the current selection snaps then without notifying the listener. Attached sliders still
+   * adjust the snapped color. The point of each allowed color is looked up once per layout.
+   *
+   * @param colors the allowed colors, at most {@link #MAX_SNAP_COLORS}, or null or empty to stop
+   *     snapping.
+   */
+  @MainThread
+  public void setSnapColors(@Nullable int[] colors) {
+    if (snapColorTableTask != null) {
+      snapColorTableTask.cancel();
+      snapColorTableTask = null;
+    }
+    snapColorTable = null;
+    snapPoints = null;
+    if (colors == null || colors.length == 0) {
+      snapColors = null;
+      return;
+    }
+    if (colors.length > MAX_SNAP_COLORS) {
+      throw new IllegalArgumentException(
+        "snap colors can't be more than " + MAX_SNAP_COLORS + " colors.");
+    }
+    snapColors = colors.clone();
+    snapColorTableTask = new SnapColorTable.BuildTask(snapColors, this::onSnapColorTableBuilt);
+    BackgroundExecutor.get().execute(snapColorTableTask);
+  }
+
+  /**
+   * gets the allowed colors which the colors selected from the palette snap to.
+   *
+   * @return the allowed colors, or null if the colors don't snap.
+   */
+  public @Nullable int[] getSnapColors() {
+    return snapColors != null ? snapColors.clone() : null;
+  }
+
+  private void onSnapColorTableBuilt(SnapColorTable table) {
+    snapColorTableTask = null;
+    snapColorTable = table;
+    snapPoints = new float[table.size() * 2];
+    Arrays.fill(snapPoints, Float.NaN);
+    if (getWidth() > 0 && selectedPureColor != table.snap(selectedPureColor)) {
+      // nobody has selected a color, so the selector moves without notifying the listener.
+      mappedPoint.set(selectedPoint.x, selectedPoint.y);
+      int color = snapColor(selectedPureColor, mappedPoint);
+      int mappedX = (int) mappedPoint.x;
+      int mappedY = (int) mappedPoint.y;
+      selectedPureColor = color;
+      selectedColor = color;
+      selectedPoint.set(mappedX, mappedY);
+      setCoordinate(mappedX, mappedY);
+      notifyToSlideBars();
+      notifyToFlagView(mappedX, mappedY);
+    }
+  }
+
+  /**
+   * snaps a color sampled from the palette to the nearest allowed color, moving the point to
+   * where the palette shows the allowed color if the palette can look it up.
+   */
+  private int snapColor(@ColorInt int color, PointF point) {
+    if (Color.alpha(color) == 0) return color;
+    int index = snapColorTable.indexOf(color);
+    int snapped = snapColorTable.getColor(index);
+    if (snapped == color) return snapped;
+    // laying out the sampler again clears the points, so it's done before reading them.
+    PaletteSampler sampler = getPaletteSampler();
+    if (Float.isNaN(snapPoints[index * 2])) {
+      if (sampler == null || !sampler.pointOf(snapped, snappedPoint)) {
+        if (sampler instanceof BitmapPaletteSampler) {
+          // the point stays where it is until the color index is built.
+          ((BitmapPaletteSampler) sampler).buildColorIndex(null);
+        }
+        return snapped;
+      }
+      PointMapper.getColorPoint(this, (int) snappedPoint.x, (int) snappedPoint.y, snappedPoint);
+      snapPoints[index * 2] = snappedPoint.x;
+      snapPoints[index * 2 + 1] = snappedPoint.y;
+    }
+    point.set(snapPoints[index * 2], snapPoints[index * 2 + 1]);
+    return snapped;
+  }
+
+  /** forgets the points of the allowed colors, when the palette or its layout changes. */
+  private void clearSnapPoints() {
+    if (snapPoints != null) Arrays.fill(snapPoints, Float.NaN);
+  }
+
+  private int[] getColorArray(int resource) {
+    TypedArray array = getResources().obtainTypedArray(resource);
+    try {
+      int[] colors = new int[array.length()];
+      for (int i = 0; i < colors.length; i++) {
+        colors[i] = array.getColor(i, Color.BLACK);
+      }
+      return colors;
+    } finally {
+      array.recycle();
+    }
+  }
+
   public boolean isHuePalette() {
     return palette.getDrawable() != null && palette.getDrawable() instanceof ColorHsvPalette;
   }
 
   /**
    * notifies color changes to {@link ColorListener}, {@link FlagView}. {@link AlphaSlideBar},
-   * {@link BrightnessSlideBar} with the debounce duration.
+   * {@link BrightnessSlideBar} with the debounce duration, or with the throttling rules of the
+   * {@link ActionMode}.
    */
   private void notifyColorChanged() {
+    if (actionMode == ActionMode.THROTTLE || actionMode == ActionMode.FRAME) {
+      dispatchThrottled(getColor(), true);
+      return;
+    }
     this.debounceHandler.removeCallbacksAndMessages(null);
-    Runnable debounceRunnable =
-      () -> {
-        fireColorListener(getColor(), true);
-        notifyToFlagView(selectedPoint);
-      };
     this.debounceHandler.postDelayed(debounceRunnable, this.debounceDuration);
   }
 
+  /**
+   * invokes the color listener with a color selected by a user, following the {@link ActionMode}.
+   *
+   * <p>{@link ActionMode#THROTTLE} and {@link ActionMode#FRAME} invoke the listener at most once
+   * per throttle duration or per frame, other modes invoke it immediately. This is used by the
+   * sliders attached to this view.
+   *
+   * @param color color.
+   */
+  @MainThread
+  public void dispatchColorListener(@ColorInt int color) {
+    if (actionMode == ActionMode.THROTTLE || actionMode == ActionMode.FRAME) {
+      dispatchThrottled(color, false);
+    } else {
+      fireColorListener(color, true);
+    }
+  }
+
+  /**
+   * invokes the listener at once if no dispatch window is open, and opens a new window. Otherwise
+   * keeps only the latest color, which is invoked when the window closes.
+   */
+  private void dispatchThrottled(@ColorInt int color, boolean fromPalette) {
+    if (dispatchWindowOpen) {
+      pendingColor = color;
+      pendingFromPalette |= fromPalette;
+      dispatchPending = true;
+      return;
+    }
+    dispatch(color, fromPalette);
+    openDispatchWindow();
+  }
+
+  private void openDispatchWindow() {
+    dispatchWindowOpen = true;
+    if (actionMode == ActionMode.FRAME) {
+      Choreographer.getInstance().postFrameCallback(dispatchFrameCallback);
+    } else {
+      debounceHandler.postDelayed(throttleRunnable, throttleDuration);
+    }
+  }
+
+  /** invokes the trailing color of the window if any, and keeps throttling after it. */
+  private void onDispatchWindowClosed() {
+    dispatchWindowOpen = false;
+    if (dispatchPending) {
+      dispatchPending = false;
+      boolean fromPalette = pendingFromPalette;
+      pendingFromPalette = false;
+      dispatch(pendingColor, fromPalette);
+      openDispatchWindow();
+    }
+  }
+
+  private void dispatch(@ColorInt int color, boolean fromPalette) {
+    fireColorListener(color, true);
+    if (fromPalette) notifyToFlagView((int) selectedPoint.x, (int) selectedPoint.y);
+  }
+
+  /** drops the colors waiting for the debounce duration or the dispatch window. */
+  private void cancelPendingDispatch() {
+    debounceHandler.removeCallbacks(debounceRunnable);
+    cancelDispatchWindow();
+  }
+
+  /** drops the pending trailing color and closes the dispatch window. */
+  private void cancelDispatchWindow() {
+    debounceHandler.removeCallbacks(throttleRunnable);
+    Choreographer.getInstance().removeFrameCallback(dispatchFrameCallback);
+    dispatchWindowOpen = false;
+    dispatchPending = false;
+    pendingFromPalette = false;
+  }
+
   /**
    * gets a pixel color on the specific coordinate from the bitmap.
    *
+   * <p>Sampling has no drawing side effects, so it can be used for probing coordinates. Views
+   * whose pixels change, such as the selector and the flag, invalidate their own bounds.
+   *
    * @param x coordinate x.
    * @param y coordinate y.
    * @return selected color.
    */
   protected int getColorFromBitmap(float x, float y) {
-    Matrix invertMatrix = new Matrix();
-    palette.getImageMatrix().invert(invertMatrix);
-
-    float[] mappedPoints = new float[]{x, y};
-    invertMatrix.mapPoints(mappedPoints);
+    PaletteSampler sampler = getPaletteSampler();
+    return sampler != null ? sampler.colorAt(x, y) : Color.TRANSPARENT;
+  }
 
-    if (palette.getDrawable() != null
-      && palette.getDrawable() instanceof BitmapDrawable
-      && mappedPoints[0] >= 0
-      && mappedPoints[1] >= 0
-      && mappedPoints[0] < palette.getDrawable().getIntrinsicWidth()
-      && mappedPoints[1] < palette.getDrawable().getIntrinsicHeight()) {
+  /**
+   * gets the {@link PaletteSampler} of the current palette.
+   *
+   * @return {@link PaletteSampler}, or null if the palette is not created yet.
+   */
+  public @Nullable PaletteSampler getPaletteSampler() {
+    if (paletteSampler != null && paletteSamplerDirty && palette != null) {
+      paletteSampler.onLayout(getWidth(), getHeight(), palette.getImageMatrix());
+      paletteSamplerDirty = false;
+      clearSnapPoints();
+    }
+    return paletteSampler;
+  }
 
-      invalidate();
+  /**
+   * sets a {@link PaletteSampler} sampling the current palette drawable instead of the sampler
+   * chosen for its kind. The sampler is used until the palette drawable is changed.
+   *
+   * @param sampler {@link PaletteSampler}, or null for the sampler chosen for the palette.
+   */
+  public void setPaletteSampler(@Nullable PaletteSampler sampler) {
+    this.customPaletteSampler = sampler;
+    updatePaletteSampler();
+  }
 
-      if (palette.getDrawable() instanceof ColorHsvPalette) {
-        x = x - getWidth() * 0.5f;
-        y = y - getHeight() * 0.5f;
-        double r = Math.sqrt(x * x + y * y);
-        float radius = Math.min(getWidth(), getHeight()) * 0.5f;
-        float[] hsv = {0, 0, 1};
-        hsv[0] = (float) (Math.atan2(y, -x) / Math.PI * 180f) + 180;
-        hsv[1] = Math.max(0f, Math.min(1f, (float) (r / radius)));
-        return Color.HSVToColor(hsv);
+  /**
+   * chooses the sampler of the current palette. The HSV palette is sampled analytically, and
+   * other palettes are sampled from a copy of their pixels.
+   */
+  private void updatePaletteSampler() {
+    if (palette == null) return;
+    Drawable drawable = palette.getDrawable();
+    if (customPaletteSampler != null) {
+      paletteSampler = customPaletteSampler;
+    } else if (drawable instanceof ColorHsvPalette) {
+      paletteSampler = hsvWheelSampler;
+    } else {
+      BitmapPaletteSampler sampler;
+      if (paletteSampler instanceof BitmapPaletteSampler
+        && ((BitmapPaletteSampler) paletteSampler).isSamplerOf(drawable)) {
+        sampler = (BitmapPaletteSampler) paletteSampler;
       } else {
-        Rect rect = palette.getDrawable().getBounds();
-        float scaleX = mappedPoints[0] / rect.width();
-        int x1 = (int) (scaleX * ((BitmapDrawable) palette.getDrawable()).getBitmap().getWidth());
-        float scaleY = mappedPoints[1] / rect.height();
-        int y1 = (int) (scaleY * ((BitmapDrawable) palette.getDrawable()).getBitmap().getHeight());
-        return ((BitmapDrawable) palette.getDrawable()).getBitmap().getPixel(x1, y1);
+        sampler = new BitmapPaletteSampler(drawable);
       }
+      sampler.setKernel(kernel);
+      sampler.setSnapshotEnabled(paletteSnapshotEnabled, paletteSnapshotMaxPixels);
+      paletteSampler = sampler;
+    }
+    paletteSamplerDirty = true;
+  }
+
+  /**
+   * sets whether the palette bitmap's pixels should be copied into a snapshot for sampling.
+   *
+   * <p>The snapshot costs 4 bytes per palette pixel and is copied on a background thread, and
+   * palettes bigger than {@link #setPaletteSnapshotMaxPixels(long)} are not copied. Disable it to
+   * always sample from the bitmap directly.
+   *
+   * @param enabled true/false flag for making enable or not.
+   */
+  public void setPaletteSnapshotEnabled(boolean enabled) {
+    this.paletteSnapshotEnabled = enabled;
+    updatePaletteSampler();
+  }
+
+  /**
+   * sets whether the default {@link ColorHsvPalette} draws a wheel rendered once and shared by the
+   * pickers of the same size through the {@link HsvPaletteCache}.
+   *
+   * <p>When disabled, the palette keeps no bitmap and draws the wheel on every draw, which saves 4
+   * bytes per pixel of the picker. Sampling colors is analytic either way.
+   *
+   * @param enabled true/false flag for making enable or not.
+   */
+  public void setHsvPaletteCacheEnabled(boolean enabled) {
+    if (this.hsvPaletteCacheEnabled == enabled) return;
+    this.hsvPaletteCacheEnabled = enabled;
+    if (isHuePalette() && getWidth() > 0 && getHeight() > 0) {
+      palette.setImageDrawable(createHsvPalette(getWidth(), getHeight()));
+      updatePaletteSampler();
     }
-    return 0;
+  }
+
+  /**
+   * gets whether the default {@link ColorHsvPalette} draws a wheel shared through the {@link
+   * HsvPaletteCache}.
+   *
+   * @return true if the palette cache is enabled.
+   */
+  public boolean isHsvPaletteCacheEnabled() {
+    return hsvPaletteCacheEnabled;
+  }
+
+  /**
+   * gets whether the palette bitmap's pixels are copied into a snapshot for sampling.
+   *
+   * @return true if the snapshot is enabled.
+   */
+  public boolean isPaletteSnapshotEnabled() {
+    return paletteSnapshotEnabled;
+  }
+
+  /**
+   * sets the maximum pixel count of a palette bitmap to be copied into a snapshot. Bigger
+   * palettes will be sampled from the bitmap directly. The default is {@link
+   * #DEFAULT_PALETTE_SNAPSHOT_MAX_PIXELS}.
+   *
+   * @param maxPixels the maximum pixel count.
+   */
+  public void setPaletteSnapshotMaxPixels(long maxPixels) {
+    this.paletteSnapshotMaxPixels = maxPixels;
+    updatePaletteSampler();
+  }
+
+  /**
+   * gets the number of bytes retained by the palette snapshot and its summed-area table.
+   *
+   * @return the retained bytes, or 0 if the palette is not snapshotted.
+   */
+  public long getPaletteSnapshotByteCount() {
+    if (!(paletteSampler instanceof BitmapPaletteSampler)) return 0;
+    return ((BitmapPaletteSampler) paletteSampler).getSnapshotByteCount();
+  }
+
+  /**
+   * sets a {@link SamplingKernel} for sampling colors from an image palette.
+   *
+   * <p>Box and Gaussian kernels average the colors around the selected pixel using a summed-area
+   * table built once per palette on a background thread, so any kernel size costs the same per
+   * touch. Until the table is built, or if the palette is bigger than 512K pixels, the kernel is
+   * summed directly, costing up to its area per touch. They need the palette snapshot and don't
+   * apply to the {@link ColorHsvPalette}.
+   *
+   * @param samplingKernel {@link SamplingKernel}.
+   */
+  public void setSamplingKernel(SamplingKernel samplingKernel) {
+    this.samplingKernel = samplingKernel;
+    this.kernel = SummedAreaTable.Kernel.of(samplingKernel, samplingKernelSize);
+    updatePaletteSampler();
+  }
+
+  /**
+   * gets the {@link SamplingKernel}.
+   *
+   * @return {@link SamplingKernel}.
+   */
+  public SamplingKernel getSamplingKernel() {
+    return samplingKernel;
+  }
+
+  /**
+   * sets the width/height size of the sampling kernel in palette pixels. Even sizes are rounded up
+   * to the next odd size, and the size is limited to 101.
+   *
+   * @param size the width/height size of the sampling kernel.
+   */
+  public void setSamplingKernelSize(int size) {
+    this.samplingKernelSize = size;
+    this.kernel = SummedAreaTable.Kernel.of(samplingKernel, samplingKernelSize);
+    updatePaletteSampler();
+  }
+
+  /**
+   * gets the width/height size of the sampling kernel.
+   *
+   * @return the width/height size of the sampling kernel.
+   */
+  public int getSamplingKernelSize() {
+    return samplingKernelSize;
   }
 
   /**
@@ -396,6 +1191,34 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    */
   public void setColorListener(ColorPickerViewListener colorListener) {
     this.colorListener = colorListener;
+    this.listenerDispatcher = null;
+  }
+
+  /**
+   * sets a {@link ColorPickerViewListener} on the {@link ColorPickerView}, which is invoked on the
+   * {@link Executor}.
+   *
+   * <p>Deliveries are conflated, so a slow listener only receives the latest color instead of a
+   * backlog. The listener is never invoked concurrently, and colors arrive in the order they were
+   * selected. The UI thread never waits for the listener, so the executor should not block in
+   * {@link Executor#execute(Runnable)}.
+   *
+   * @param colorListener {@link ColorListener} or {@link ColorEnvelopeListener}.
+   * @param executor an {@link Executor} which invokes the listener.
+   */
+  public void setColorListener(ColorPickerViewListener colorListener, @NonNull Executor executor) {
+    this.colorListener = colorListener;
+    this.listenerDispatcher = new ConflatedListenerDispatcher(executor);
+  }
+
+  /**
+   * gets the {@link Executor} which invokes the color listener.
+   *
+   * @return the {@link Executor}, or null if the listener is invoked on the UI thread.
+   */
+  @Nullable
+  public Executor getColorListenerExecutor() {
+    return listenerDispatcher != null ? listenerDispatcher.getExecutor() : null;
   }
 
   /**
@@ -415,18 +1238,25 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
       this.selectedColor = getBrightnessSlider().assembleColor();
     }
 
-    if (this.colorListener != null) {
+    if (this.colorListener != null && this.listenerDispatcher != null) {
+      ColorEnvelope envelope =
+        colorListener instanceof ColorEnvelopeListener ? getColorEnvelope() : null;
+      listenerDispatcher.dispatch(colorListener, selectedColor, envelope, fromUser);
+    } else if (this.colorListener != null) {
       if (colorListener instanceof ColorListener) {
         ((ColorListener) colorListener).onColorSelected(selectedColor, fromUser);
       } else if (colorListener instanceof ColorEnvelopeListener) {
-        ColorEnvelope envelope = new ColorEnvelope(selectedColor);
-        ((ColorEnvelopeListener) colorListener).onColorSelected(envelope, fromUser);
+        ((ColorEnvelopeListener) colorListener).onColorSelected(getColorEnvelope(), fromUser);
       }
     }
 
     if (this.flagView != null) {
       this.flagView.onRefresh(getColorEnvelope());
-      invalidate();
+      if (singleCanvasEnabled) {
+        invalidateParts();
+      } else {
+        this.flagView.invalidate();
+      }
     }
 
     if (VISIBLE_FLAG) {
@@ -437,6 +1267,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
       if (this.flagView != null) {
         this.flagView.setAlpha(flag_alpha);
       }
+      invalidateParts();
     }
   }
 
@@ -457,35 +1288,38 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
   /**
    * notify to {@link FlagView} about a new trigger.
    *
-   * @param point a new coordinate {@link Point}.
+   * @param x a new coordinate x.
+   * @param y a new coordinate y.
    */
-  private void notifyToFlagView(Point point) {
-    Point centerPoint = getCenterPoint(point.x, point.y);
+  private void notifyToFlagView(int x, int y) {
     if (flagView != null) {
+      int centerX = x - (selector.getWidth() / 2);
+      int centerY = y - (selector.getMeasuredHeight() / 2);
       if (flagView.getFlagMode() == FlagMode.ALWAYS) flagView.visible();
-      int posX = centerPoint.x - flagView.getWidth() / 2 + selector.getWidth() / 2;
+      int posX = centerX - flagView.getWidth() / 2 + selector.getWidth() / 2;
       if (flagView.isFlipAble()) {
-        if (centerPoint.y - flagView.getHeight() > 0) {
+        if (centerY - flagView.getHeight() > 0) {
           flagView.setRotation(0);
           flagView.setX(posX);
-          flagView.setY(centerPoint.y - flagView.getHeight());
+          flagView.setY(centerY - flagView.getHeight());
           flagView.onFlipped(false);
         } else {
           flagView.setRotation(180);
           flagView.setX(posX);
-          flagView.setY(centerPoint.y + flagView.getHeight() - selector.getHeight() * 0.5f);
+          flagView.setY(centerY + flagView.getHeight() - selector.getHeight() * 0.5f);
           flagView.onFlipped(true);
         }
       } else {
         flagView.setRotation(0);
         flagView.setX(posX);
-        flagView.setY(centerPoint.y - flagView.getHeight());
+        flagView.setY(centerY - flagView.getHeight());
       }
       flagView.onRefresh(getColorEnvelope());
       if (posX < 0) flagView.setX(0);
       if (posX + flagView.getWidth() > getWidth()) {
         flagView.setX(getWidth() - flagView.getWidth());
       }
+      invalidateParts();
     }
   }
 
@@ -528,10 +1362,17 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
   /**
    * gets the {@link ColorEnvelope} of the selected color.
    *
+   * <p>The same instance is returned while the selected color is unchanged, and a new one is
+   * created when it changes, so the envelopes given before keep their colors.
+   *
    * @return {@link ColorEnvelope}.
    */
   public ColorEnvelope getColorEnvelope() {
-    return new ColorEnvelope(getColor());
+    int color = getColor();
+    if (colorEnvelope == null || colorEnvelope.getColor() != color) {
+      colorEnvelope = new ColorEnvelope(color);
+    }
+    return colorEnvelope;
   }
 
   /**
@@ -550,7 +1391,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    */
   public void setFlagView(@NonNull FlagView flagView) {
     flagView.gone();
-    addView(flagView);
+    addPart(flagView, flagView.getLayoutParams());
     this.flagView = flagView;
     flagView.setAlpha(flag_alpha);
     flagView.setFlipAble(flag_isFlipAble);
@@ -581,14 +1422,28 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
   }
 
   /**
-   * gets center coordinate of the selector.
+   * gets a throttle duration.
    *
-   * @param x coordinate x.
-   * @param y coordinate y.
-   * @return the center coordinate of the selector.
+   * <p>emits a color to the listener at most once per this timespan in {@link
+   * ActionMode#THROTTLE}.
+   *
+   * @return throttleDuration.
+   */
+  public long getThrottleDuration() {
+    return this.throttleDuration;
+  }
+
+  /**
+   * sets a throttle duration.
+   *
+   * <p>emits a color to the listener at most once per this timespan in {@link
+   * ActionMode#THROTTLE}. The first color is emitted immediately and the latest color of each
+   * timespan is emitted when it ends.
+   *
+   * @param throttleDuration intervals.
    */
-  private Point getCenterPoint(int x, int y) {
-    return new Point(x - (selector.getWidth() / 2), y - (selector.getMeasuredHeight() / 2));
+  public void setThrottleDuration(long throttleDuration) {
+    this.throttleDuration = throttleDuration;
   }
 
   /**
@@ -624,7 +1479,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    * @return a selected coordinate {@link Point}.
    */
   public Point getSelectedPoint() {
-    return selectedPoint;
+    return new Point((int) selectedPoint.x, (int) selectedPoint.y);
   }
 
   /**
@@ -634,14 +1489,17 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    * @param y coordinate y of the selector.
    */
   public void setSelectorPoint(int x, int y) {
-    Point mappedPoint = PointMapper.getColorPoint(this, new Point(x, y));
-    int color = getColorFromBitmap(mappedPoint.x, mappedPoint.y);
+    PointMapper.getColorPoint(this, x, y, mappedPoint);
+    int color = getColorFromBitmap((int) mappedPoint.x, (int) mappedPoint.y);
+    if (snapColorTable != null) color = snapColor(color, mappedPoint);
+    int mappedX = (int) mappedPoint.x;
+    int mappedY = (int) mappedPoint.y;
     selectedPureColor = color;
     selectedColor = color;
-    selectedPoint = new Point(mappedPoint.x, mappedPoint.y);
-    setCoordinate(mappedPoint.x, mappedPoint.y);
+    selectedPoint.set(mappedX, mappedY);
+    setCoordinate(mappedX, mappedY);
     fireColorListener(getColor(), false);
-    notifyToFlagView(selectedPoint);
+    notifyToFlagView(mappedX, mappedY);
   }
 
   /**
@@ -653,10 +1511,10 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
   public void moveSelectorPoint(int x, int y, @ColorInt int color) {
     selectedPureColor = color;
     selectedColor = color;
-    selectedPoint = new Point(x, y);
+    selectedPoint.set(x, y);
     setCoordinate(x, y);
     fireColorListener(getColor(), false);
-    notifyToFlagView(selectedPoint);
+    notifyToFlagView(x, y);
   }
 
   /**
@@ -668,6 +1526,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
   public void setCoordinate(int x, int y) {
     selector.setX(x - (selector.getWidth() * 0.5f));
     selector.setY(y - (selector.getMeasuredHeight() * 0.5f));
+    invalidateParts();
   }
 
   /**
@@ -677,20 +1536,31 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    * @param color a starting color.
    */
   public void setInitialColor(@ColorInt final int color) {
-    if (getPreferenceName() == null
-      || (getPreferenceName() != null
-      && preferenceManager.getColor(getPreferenceName(), -1) == -1)) {
-      post(
+    if (getPreferenceName() == null) {
+      selectInitialColor(color);
+    } else {
+      preferenceManager.runWhenLoaded(
         () -> {
-          try {
-            selectByHsvColor(color);
-          } catch (IllegalAccessException e) {
-            e.printStackTrace();
+          if (getPreferenceName() == null
+            || preferenceManager.getColor(getPreferenceName(), -1) == -1) {
+            selectInitialColor(color);
           }
         });
     }
   }
 
+  private void selectInitialColor(@ColorInt final int color) {
+    post(
+      () -> {
+        if (instanceStateRestored) return;
+        try {
+          selectByHsvColor(color);
+        } catch (IllegalAccessException e) {
+          e.printStackTrace();
+        }
+      });
+  }
+
   /**
    * select a point by a specific color resource. this method will not work if the default palette
    * drawable is not {@link ColorHsvPalette}.
@@ -709,29 +1579,28 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    * @param color color.
    */
   public void selectByHsvColor(@ColorInt int color) throws IllegalAccessException {
-    if (palette.getDrawable() instanceof ColorHsvPalette) {
-      float[] hsv = new float[3];
-      Color.colorToHSV(color, hsv);
-
-      float centerX = getWidth() * 0.5f;
-      float centerY = getHeight() * 0.5f;
-      float radius = hsv[1] * Math.min(centerX, centerY);
-      int pointX = (int) (radius * Math.cos(Math.toRadians(hsv[0])) + centerX);
-      int pointY = (int) (-radius * Math.sin(Math.toRadians(hsv[0])) + centerY);
-
-      Point mappedPoint = PointMapper.getColorPoint(this, new Point(pointX, pointY));
+    pendingColorSelection = null;
+    PaletteSampler sampler = getPaletteSampler();
+    if (palette.getDrawable() instanceof ColorHsvPalette && sampler != null) {
+      sampler.pointOf(color, mappedPoint);
+      float value =
+        Math.max(Color.red(color), Math.max(Color.green(color), Color.blue(color))) / 255f;
+
+      PointMapper.getColorPoint(this, mappedPoint.x, mappedPoint.y, mappedPoint);
+      int mappedX = (int) mappedPoint.x;
+      int mappedY = (int) mappedPoint.y;
       selectedPureColor = color;
       selectedColor = color;
-      selectedPoint = new Point(mappedPoint.x, mappedPoint.y);
+      selectedPoint.set(mappedX, mappedY);
       if (getAlphaSlideBar() != null) {
         getAlphaSlideBar().setSelectorByHalfSelectorPosition(getAlpha());
       }
       if (getBrightnessSlider() != null) {
-        getBrightnessSlider().setSelectorByHalfSelectorPosition(hsv[2]);
+        getBrightnessSlider().setSelectorByHalfSelectorPosition(value);
       }
-      setCoordinate(mappedPoint.x, mappedPoint.y);
+      setCoordinate(mappedX, mappedY);
       fireColorListener(getColor(), false);
-      notifyToFlagView(selectedPoint);
+      notifyToFlagView(mappedX, mappedY);
     } else {
       throw new IllegalAccessException(
         "selectByHsvColor(@ColorInt int color) can be called only "
@@ -750,14 +1619,125 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
     selectByHsvColor(ContextCompat.getColor(getContext(), resource));
   }
 
+  /**
+   * changes selector's selected point to the point of the palette showing the nearest color.
+   *
+   * <p>The {@link ColorHsvPalette} is selected by {@link #selectByHsvColor(int)}. Image palettes
+   * find their nearest pixel using an index of their colors, which is built once per palette on a
+   * background thread. Until it's built, the selection is deferred and made when it's built,
+   * unless the selector is touched, another color is selected or the palette is changed before.
+   * A deferred selection is dropped if the palette has no opaque pixel.
+   *
+   * <p>It will throw an exception if the palette can't look up colors.
+   *
+   * @param color color.
+   */
+  @MainThread
+  public void selectByColor(@ColorInt int color) throws IllegalAccessException {
+    pendingColorSelection = null;
+    if (palette.getDrawable() instanceof ColorHsvPalette) {
+      selectByHsvColor(color);
+      return;
+    }
+    PaletteSampler sampler = getPaletteSampler();
+    if (sampler instanceof BitmapPaletteSampler
+      && !((BitmapPaletteSampler) sampler).isColorIndexBuilt()) {
+      final BitmapPaletteSampler bitmapSampler = (BitmapPaletteSampler) sampler;
+      Runnable selection =
+        new Runnable() {
+          @Override
+          public void run() {
+            if (pendingColorSelection != this) return;
+            pendingColorSelection = null;
+            if (getPaletteSampler() == bitmapSampler && bitmapSampler.pointOf(color, mappedPoint)) {
+              setSelectorPoint((int) mappedPoint.x, (int) mappedPoint.y);
+            }
+          }
+        };
+      pendingColorSelection = selection;
+      if (bitmapSampler.buildColorIndex(selection)) return;
+      pendingColorSelection = null;
+    }
+    if (sampler == null || !sampler.pointOf(color, mappedPoint)) {
+      throw new IllegalAccessException(
+        "selectByColor(@ColorInt int color) can be called only "
+          + "when the palette can look up colors, such as a BitmapDrawable with opaque pixels.");
+    }
+    setSelectorPoint((int) mappedPoint.x, (int) mappedPoint.y);
+  }
+
+  /**
+   * changes selector's selected point to the point of the palette showing the nearest color of a
+   * color resource.
+   *
+   * @param resource a color resource.
+   */
+  public void selectByColorRes(@ColorRes int resource) throws IllegalAccessException {
+    selectByColor(ContextCompat.getColor(getContext(), resource));
+  }
+
+  /**
+   * extracts the dominant colors of the palette on a background thread.
+   *
+   * <p>The palette pixels are downsampled and quantized by the median cut, and the listener is
+   * invoked on the main thread with at most {@code maxColors} colors ranked by their population.
+   * Palettes without a bitmap yield an empty list. Changing the palette or starting another
+   * extraction cancels the running extraction, so its listener won't be invoked.
+   *
+   * @param maxColors the maximum number of dominant colors.
+   * @param dominantColorsListener {@link DominantColorsListener}.
+   */
+  @MainThread
+  public void extractDominantColors(
+    int maxColors, @NonNull DominantColorsListener dominantColorsListener) {
+    extractDominantColors(maxColors, dominantColorsListener, BackgroundExecutor.get());
+  }
+
+  /**
+   * extracts the dominant colors of the palette on an {@link Executor}.
+   *
+   * @param maxColors the maximum number of dominant colors.
+   * @param dominantColorsListener {@link DominantColorsListener}.
+   * @param executor the executor running the extraction.
+   */
+  @MainThread
+  public void extractDominantColors(
+    int maxColors,
+    @NonNull DominantColorsListener dominantColorsListener,
+    @NonNull Executor executor) {
+    cancelDominantColorExtraction();
+    Bitmap bitmap = null;
+    Drawable drawable = palette.getDrawable();
+    if (drawable instanceof BitmapDrawable) {
+      bitmap = ((BitmapDrawable) drawable).getBitmap();
+    }
+    DominantColorExtractor extractor =
+      new DominantColorExtractor(bitmap, maxColors, dominantColorsListener);
+    dominantColorExtractor = extractor;
+    if (bitmap != null && bitmap == sharedWheel) {
+      // the shared wheel may still be rendered on the background thread.
+      HsvPaletteCache.getInstance().whenRendered(bitmap, () -> executor.execute(extractor));
+    } else {
+      executor.execute(extractor);
+    }
+  }
+
+  /** cancels the running dominant color extraction, its listener won't be invoked. */
+  @MainThread
+  public void cancelDominantColorExtraction() {
+    if (dominantColorExtractor != null) {
+      dominantColorExtractor.cancel();
+      dominantColorExtractor = null;
+    }
+  }
+
   /**
    * The default palette drawable is {@link ColorHsvPalette} if not be set the palette drawable
    * manually. This method can be used for changing as {@link ColorHsvPalette} from another palette
    * drawable.
    */
   public void setHsvPaletteDrawable() {
-    Bitmap bitmap = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
-    setPaletteDrawable(new ColorHsvPalette(getResources(), bitmap));
+    setPaletteDrawable(createHsvPalette(getWidth(), getHeight()));
   }
 
   /**
@@ -766,19 +1746,29 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    * @param drawable palette drawable.
    */
   public void setPaletteDrawable(Drawable drawable) {
-    removeView(palette);
+    cancelDominantColorExtraction();
+    pendingColorSelection = null;
+    if (!(drawable instanceof ColorHsvPalette
+      && ((ColorHsvPalette) drawable).getBitmap() == sharedWheel)) {
+      releaseSharedWheel();
+    }
+    removePart(palette);
     palette = new ImageView(getContext());
     paletteDrawable = drawable;
     palette.setImageDrawable(paletteDrawable);
-    addView(palette);
+    addPart(palette, null);
+    customPaletteSampler = null;
+    updatePaletteSampler();
 
-    removeView(selector);
-    addView(selector);
+    if (!singleCanvasEnabled) {
+      removeView(selector);
+      addView(selector);
+    }
 
     selectedPureColor = Color.WHITE;
     notifyToSlideBars();
 
-    if (flagView != null) {
+    if (flagView != null && !singleCanvasEnabled) {
       removeView(flagView);
       addView(flagView);
     }
@@ -793,6 +1783,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
         flag_alpha = flagView.getAlpha();
         flagView.setAlpha(0.0f);
       }
+      invalidateParts();
     }
   }
 
@@ -803,6 +1794,8 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    */
   public void setSelectorDrawable(Drawable drawable) {
     selector.setImageDrawable(drawable);
+    // the selector is re-measured when it is drawn next, so its new bounds are not known yet.
+    if (singleCanvasEnabled) invalidate();
   }
 
   /**
@@ -837,6 +1830,8 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
       int color = Color.argb(70, 255, 255, 255);
       palette.setColorFilter(color);
     }
+    // the palette is redrawn with its new color filter as well.
+    if (singleCanvasEnabled) invalidate();
   }
 
   /**
@@ -854,6 +1849,7 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    * @param actionMode {@link ActionMode}.
    */
   public void setActionMode(ActionMode actionMode) {
+    if (this.actionMode != actionMode) cancelDispatchWindow();
     this.actionMode = actionMode;
   }
 
@@ -955,16 +1951,64 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
    */
   @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
   public void onDestroy() {
+    cancelPendingDispatch();
+    cancelDominantColorExtraction();
+    if (snapColorTableTask != null) {
+      snapColorTableTask.cancel();
+      snapColorTableTask = null;
+    }
     preferenceManager.saveColorPickerData(this);
   }
 
+  /** SavedState is the instance state of {@link ColorPickerView}. */
+  static class SavedState extends BaseSavedState {
+
+    @ColorInt int pureColor;
+    float selectorX;
+    float selectorY;
+
+    SavedState(Parcelable superState) {
+      super(superState);
+    }
+
+    private SavedState(Parcel source) {
+      super(source);
+      pureColor = source.readInt();
+      selectorX = source.readFloat();
+      selectorY = source.readFloat();
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+      super.writeToParcel(out, flags);
+      out.writeInt(pureColor);
+      out.writeFloat(selectorX);
+      out.writeFloat(selectorY);
+    }
+
+    public static final Parcelable.Creator<SavedState> CREATOR =
+      new Parcelable.Creator<SavedState>() {
+        @Override
+        public SavedState createFromParcel(Parcel source) {
+          return new SavedState(source);
+        }
+
+        @Override
+        public SavedState[] newArray(int size) {
+          return new SavedState[size];
+        }
+      };
+  }
+
   /**
    * Builder class for create {@link ColorPickerView}.
    */
   public static class Builder {
     private final Context context;
     private ColorPickerViewListener colorPickerViewListener;
+    private Executor colorListenerExecutor;
     private int debounceDuration = 0;
+    private int throttleDuration = (int) DEFAULT_THROTTLE_DURATION;
     private FlagView flagView;
     private Drawable paletteDrawable;
     private Drawable selectorDrawable;
@@ -973,6 +2017,13 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
     private ActionMode actionMode = ActionMode.ALWAYS;
     @ColorInt
     private int initialColor = 0;
+    private boolean paletteSnapshotEnabled = true;
+    private boolean hsvPaletteCacheEnabled = true;
+    private boolean touchCoalescingEnabled = false;
+    private boolean singleCanvasEnabled = false;
+    private int[] snapColors;
+    private SamplingKernel samplingKernel = SamplingKernel.PIXEL;
+    private int samplingKernelSize = 3;
 
     @FloatRange(from = 0.0, to = 1.0)
     private float selector_alpha = 1.0f;
@@ -997,6 +2048,14 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
 
     public Builder setColorListener(ColorPickerViewListener colorPickerViewListener) {
       this.colorPickerViewListener = colorPickerViewListener;
+      this.colorListenerExecutor = null;
+      return this;
+    }
+
+    public Builder setColorListener(
+      ColorPickerViewListener colorPickerViewListener, @NonNull Executor executor) {
+      this.colorPickerViewListener = colorPickerViewListener;
+      this.colorListenerExecutor = executor;
       return this;
     }
 
@@ -1005,6 +2064,11 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
       return this;
     }
 
+    public Builder setThrottleDuration(int throttleDuration) {
+      this.throttleDuration = throttleDuration;
+      return this;
+    }
+
     public Builder setPaletteDrawable(@NonNull Drawable palette) {
       this.paletteDrawable = palette;
       return this;
@@ -1085,6 +2149,41 @@ public class ColorPickerView extends FrameLayout implements LifecycleObserver {
       return this;
     }
 
+    public Builder setPaletteSnapshotEnabled(boolean enabled) {
+      this.paletteSnapshotEnabled = enabled;
+      return this;
+    }
+
+    public Builder setHsvPaletteCacheEnabled(boolean enabled) {
+      this.hsvPaletteCacheEnabled = enabled;
+      return this;
+    }
+
+    public Builder setTouchCoalescingEnabled(boolean enabled) {
+      this.touchCoalescingEnabled = enabled;
+      return this;
+    }
+
+    public Builder setSingleCanvasEnabled(boolean enabled) {
+      this.singleCanvasEnabled = enabled;
+      return this;
+    }
+
+    public Builder setSnapColors(@NonNull int[] colors) {
+      this.snapColors = colors;
+      return this;
+    }
+
+    public Builder setSamplingKernel(SamplingKernel samplingKernel) {
+      this.samplingKernel = samplingKernel;
+      return this;
+    }
+
+    public Builder setSamplingKernelSize(int size) {
+      this.samplingKernelSize = size;
+      return this;
+    }
+
     public ColorPickerView build() {
       ColorPickerView colorPickerView = new ColorPickerView(context);
       colorPickerView.onCreateByBuilder(this);
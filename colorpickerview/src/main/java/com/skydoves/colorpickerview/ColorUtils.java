@@ -18,17 +18,20 @@ package com.skydoves.colorpickerview;
 
 import android.graphics.Color;
 import androidx.annotation.ColorInt;
-import java.util.Locale;
 
 /** ColorUtils a util class for changing the form of colors. */
 class ColorUtils {
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
   /** changes color to string hex code. */
   public static String getHexCode(@ColorInt int color) {
-    int a = Color.alpha(color);
-    int r = Color.red(color);
-    int g = Color.green(color);
-    int b = Color.blue(color);
-    return String.format(Locale.getDefault(), "%02X%02X%02X%02X", a, r, g, b);
+    char[] hex = new char[8];
+    for (int i = 7; i >= 0; i--) {
+      hex[i] = HEX_DIGITS[color & 0xF];
+      color >>>= 4;
+    }
+    return new String(hex);
   }
 
   /** changes color to argb integer array. */
@@ -40,4 +43,39 @@ class ColorUtils {
     argb[3] = Color.blue(color);
     return argb;
   }
+
+  /** changes color to hsv float array. */
+  public static float[] getColorHSV(@ColorInt int color) {
+    float[] hsv = new float[3];
+    Color.colorToHSV(color, hsv);
+    return hsv;
+  }
+
+  /** changes color to hsl float array, hue in [0, 360) and saturation, lightness in [0, 1]. */
+  public static float[] getColorHSL(@ColorInt int color) {
+    float r = Color.red(color) / 255f;
+    float g = Color.green(color) / 255f;
+    float b = Color.blue(color) / 255f;
+    float max = Math.max(r, Math.max(g, b));
+    float min = Math.min(r, Math.min(g, b));
+    float delta = max - min;
+    float l = (max + min) / 2f;
+    float h;
+    float s;
+    if (delta == 0f) {
+      h = s = 0f;
+    } else {
+      if (max == r) {
+        h = ((g - b) / delta) % 6f;
+      } else if (max == g) {
+        h = ((b - r) / delta) + 2f;
+      } else {
+        h = ((r - g) / delta) + 4f;
+      }
+      s = delta / (1f - Math.abs(2f * l - 1f));
+    }
+    h = (h * 60f) % 360f;
+    if (h < 0) h += 360f;
+    return new float[] {h, Math.min(Math.max(s, 0f), 1f), Math.min(Math.max(l, 0f), 1f)};
+  }
 }
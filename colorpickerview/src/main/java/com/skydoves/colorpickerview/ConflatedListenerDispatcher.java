@@ -0,0 +1,108 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import androidx.annotation.ColorInt;
+import com.skydoves.colorpickerview.listeners.ColorEnvelopeListener;
+import com.skydoves.colorpickerview.listeners.ColorListener;
+import com.skydoves.colorpickerview.listeners.ColorPickerViewListener;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ConflatedListenerDispatcher delivers colors to a {@link ColorPickerViewListener} on an {@link
+ * Executor}.
+ *
+ * <p>Only the latest color is kept until the executor runs, so a slow listener skips the colors
+ * it couldn't keep up with instead of building a backlog. At most one delivery runs at a time, so
+ * the listener is never invoked concurrently, and colors are delivered in the order they were
+ * selected. Dispatching never waits for the listener.
+ */
+final class ConflatedListenerDispatcher implements Runnable {
+
+  private final Executor executor;
+  private final AtomicReference<Delivery> pending = new AtomicReference<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  ConflatedListenerDispatcher(Executor executor) {
+    this.executor = executor;
+  }
+
+  Executor getExecutor() {
+    return executor;
+  }
+
+  /** replaces the pending color and schedules a delivery if none is scheduled yet. */
+  void dispatch(
+    ColorPickerViewListener listener,
+    @ColorInt int color,
+    ColorEnvelope envelope,
+    boolean fromUser) {
+    pending.set(new Delivery(listener, color, envelope, fromUser));
+    schedule();
+  }
+
+  private void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        scheduled.set(false);
+        throw e;
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    Delivery delivery;
+    while ((delivery = pending.getAndSet(null)) != null) {
+      delivery.deliver();
+    }
+    scheduled.set(false);
+    // a color may have been dispatched after the last poll but before the flag was cleared.
+    if (pending.get() != null) schedule();
+  }
+
+  private static final class Delivery {
+    private final ColorPickerViewListener listener;
+    @ColorInt private final int color;
+    private final ColorEnvelope envelope;
+    private final boolean fromUser;
+
+    Delivery(
+      ColorPickerViewListener listener,
+      @ColorInt int color,
+      ColorEnvelope envelope,
+      boolean fromUser) {
+      this.listener = listener;
+      this.color = color;
+      this.envelope = envelope;
+      this.fromUser = fromUser;
+    }
+
+    void deliver() {
+      if (listener instanceof ColorListener) {
+        ((ColorListener) listener).onColorSelected(color, fromUser);
+      } else if (listener instanceof ColorEnvelopeListener) {
+        ((ColorEnvelopeListener) listener).onColorSelected(envelope, fromUser);
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.skydoves.colorpickerview;
+
+import androidx.annotation.ColorInt;
+
+/**
+ * DominantColor is a dominant color of a palette image with the number of sampled pixels it
+ * represents, extracted by {@link ColorPickerView#extractDominantColors(int,
+ * com.skydoves.colorpickerview.listeners.DominantColorsListener)}.
+ */
+@SuppressWarnings("unused")
+public class DominantColor {
+
+  private final ColorEnvelope colorEnvelope;
+  private final int population;
+
+  public DominantColor(@ColorInt int color, int population) {
+    this.colorEnvelope = new ColorEnvelope(color);
+    this.population = population;
+  }
+
+  /**
+   * gets the dominant color.
+   *
+   * @return color.
+   */
+  public @ColorInt int getColor() {
+    return colorEnvelope.getColor();
+  }
+
+  /**
+   * gets the {@link ColorEnvelope} of the dominant color.
+   *
+   * @return {@link ColorEnvelope}.
+   */
+  public ColorEnvelope getColorEnvelope() {
+    return colorEnvelope;
+  }
+
+  /**
+   * gets the number of sampled pixels represented by the dominant color.
+   *
+   * @return population.
+   */
+  public int getPopulation() {
+    return population;
+  }
+}
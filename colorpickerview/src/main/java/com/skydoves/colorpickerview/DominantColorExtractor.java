@@ -0,0 +1,319 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.skydoves.colorpickerview;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.Nullable;
+import com.skydoves.colorpickerview.listeners.DominantColorsListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * DominantColorExtractor extracts the dominant colors of a palette bitmap on an {@link Executor}
+ * using the median cut.
+ *
+ * <p>The bitmap is read on an evenly spaced subset of at most {@link #MAX_SAMPLED_PIXELS} pixels
+ * into a histogram of 15-bit colors. Boxes of colors are split along their longest channel, the
+ * most populous boxes first and then the largest by volume and population, until there are
+ * enough boxes, and each box yields its population-weighted average color. Extracting can be
+ * canceled at any time, and a canceled extraction never invokes its listener.
+ *
+ * <p>A missing or recycled bitmap yields no colors. Hardware bitmaps can't be read, so they are
+ * copied into an ARGB_8888 bitmap first, which takes as much memory as the bitmap while
+ * extracting.
+ */
+final class DominantColorExtractor implements Runnable {
+
+  /** the maximum number of pixels read from the bitmap. */
+  static final int MAX_SAMPLED_PIXELS = 256 * 256;
+
+  /** the fraction of the colors split by population before splitting by volume. */
+  private static final float POPULATION_SPLIT_FRACTION = 0.75f;
+
+  /** pixels more transparent than this are not counted. */
+  private static final int MIN_ALPHA = 128;
+
+  private final Bitmap bitmap;
+  private final int maxColors;
+  private final DominantColorsListener listener;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private volatile boolean canceled = false;
+
+  private int[] histogram;
+  private int[] colors;
+
+  DominantColorExtractor(@Nullable Bitmap bitmap, int maxColors, DominantColorsListener listener) {
+    this.bitmap = bitmap;
+    this.maxColors = maxColors;
+    this.listener = listener;
+  }
+
+  /** cancels the extraction. the listener will not be invoked. */
+  void cancel() {
+    canceled = true;
+  }
+
+  boolean isCanceled() {
+    return canceled;
+  }
+
+  @Override
+  public void run() {
+    if (canceled) return;
+    final List<DominantColor> dominantColors = extract();
+    if (dominantColors == null) return;
+    mainHandler.post(
+        () -> {
+          if (!canceled) listener.onDominantColorsExtracted(dominantColors);
+        });
+  }
+
+  /** extracts the dominant colors, or returns null if the extraction has been canceled. */
+  @Nullable
+  List<DominantColor> extract() {
+    if (bitmap == null || bitmap.isRecycled() || maxColors <= 0) {
+      return Collections.emptyList();
+    }
+    Bitmap readable = getReadableBitmap(bitmap);
+    if (readable == null) return Collections.emptyList();
+    boolean read;
+    try {
+      read = buildHistogram(readable);
+    } finally {
+      if (readable != bitmap) readable.recycle();
+    }
+    if (canceled) return null;
+    if (!read) return Collections.emptyList();
+
+    List<Box> boxes = new ArrayList<>(maxColors);
+    PriorityQueue<Box> queue =
+        new PriorityQueue<>(maxColors, (a, b) -> Integer.compare(b.population, a.population));
+    if (colors.length > 0) queue.add(new Box(0, colors.length - 1));
+    // the most populous boxes are split first, then the largest boxes by their volume so the
+    // small but distinct colors are not left averaged with their surroundings.
+    if (!splitBoxes(queue, boxes, (int) Math.ceil(maxColors * POPULATION_SPLIT_FRACTION))) {
+      return null;
+    }
+    PriorityQueue<Box> volumeQueue =
+        new PriorityQueue<>(
+            maxColors, (a, b) -> Long.compare(b.getVolumePopulation(), a.getVolumePopulation()));
+    volumeQueue.addAll(queue);
+    if (!splitBoxes(volumeQueue, boxes, maxColors)) return null;
+    boxes.addAll(volumeQueue);
+
+    List<DominantColor> dominantColors = new ArrayList<>(boxes.size());
+    for (Box box : boxes) {
+      dominantColors.add(new DominantColor(box.getAverageColor(), box.population));
+    }
+    Collections.sort(dominantColors, (a, b) -> b.getPopulation() - a.getPopulation());
+    return dominantColors;
+  }
+
+  /**
+   * splits the boxes of the queue in its order until there are the given number of boxes, moving
+   * the boxes of a single color to the list. returns false if canceled.
+   */
+  private boolean splitBoxes(PriorityQueue<Box> queue, List<Box> boxes, int count) {
+    while (!queue.isEmpty() && queue.size() + boxes.size() < count) {
+      if (canceled) return false;
+      Box box = queue.poll();
+      if (box.lower == box.upper) {
+        boxes.add(box);
+      } else {
+        int split = split(box);
+        queue.add(new Box(box.lower, split));
+        queue.add(new Box(split + 1, box.upper));
+      }
+    }
+    return true;
+  }
+
+  /**
+   * gets a bitmap whose pixels can be read, copying a hardware bitmap, or null if the bitmap has
+   * been recycled.
+   */
+  @Nullable
+  private static Bitmap getReadableBitmap(Bitmap bitmap) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+        && bitmap.getConfig() == Bitmap.Config.HARDWARE) {
+      try {
+        return bitmap.copy(Bitmap.Config.ARGB_8888, false);
+      } catch (IllegalStateException e) {
+        return null;
+      }
+    }
+    return bitmap;
+  }
+
+  /**
+   * counts the sampled pixels by 15-bit color, returning false if canceled or if the bitmap has
+   * been recycled.
+   */
+  private boolean buildHistogram(Bitmap bitmap) {
+    int width = bitmap.getWidth();
+    int height = bitmap.getHeight();
+    long pixelCount = (long) width * height;
+    int step = (int) Math.max(1, Math.ceil(Math.sqrt((double) pixelCount / MAX_SAMPLED_PIXELS)));
+
+    histogram = new int[1 << 15];
+    int[] row = new int[width];
+    for (int y = 0; y < height; y += step) {
+      if (canceled) return false;
+      try {
+        bitmap.getPixels(row, 0, width, 0, y, width, 1);
+      } catch (IllegalStateException e) {
+        // the bitmap has been recycled along with its palette.
+        return false;
+      }
+      for (int x = 0; x < width; x += step) {
+        int pixel = row[x];
+        if (Color.alpha(pixel) < MIN_ALPHA) continue;
+        histogram[quantize(pixel)]++;
+      }
+    }
+
+    int distinct = 0;
+    for (int count : histogram) {
+      if (count > 0) distinct++;
+    }
+    colors = new int[distinct];
+    for (int color = 0, i = 0; color < histogram.length; color++) {
+      if (histogram[color] > 0) colors[i++] = color;
+    }
+    return true;
+  }
+
+  /**
+   * sorts the box along its longest channel and returns the last index of its lower part.
+   *
+   * <p>The cut is moved from the population median halfway into the longer side, so a dense
+   * cluster at one end isn't cut in two.
+   */
+  private int split(Box box) {
+    int channel = box.getLongestChannel();
+    int shift = 10 - channel * 5;
+    for (int i = box.lower; i <= box.upper; i++) {
+      colors[i] |= ((colors[i] >> shift) & 0x1F) << 15;
+    }
+    Arrays.sort(colors, box.lower, box.upper + 1);
+    for (int i = box.lower; i <= box.upper; i++) {
+      colors[i] &= 0x7FFF;
+    }
+
+    int min = box.min[channel];
+    int max = box.max[channel];
+    int median = max;
+    int count = 0;
+    for (int i = box.lower; i <= box.upper; i++) {
+      count += histogram[colors[i]];
+      if (count * 2 >= box.population) {
+        median = (colors[i] >> shift) & 0x1F;
+        break;
+      }
+    }
+    int left = median - min;
+    int right = max - median;
+    int cut;
+    if (left <= right) {
+      cut = Math.min(max - 1, median + right / 2);
+    } else {
+      cut = Math.max(min, median - 1 - left / 2);
+    }
+
+    int index = box.lower;
+    while (index < box.upper - 1 && ((colors[index + 1] >> shift) & 0x1F) <= cut) {
+      index++;
+    }
+    return index;
+  }
+
+  private static int quantize(int color) {
+    return ((Color.red(color) >> 3) << 10)
+        | ((Color.green(color) >> 3) << 5)
+        | (Color.blue(color) >> 3);
+  }
+
+  /** expands a 5-bit channel to 8 bits. */
+  private static int expand(int channel) {
+    return (channel << 3) | (channel >> 2);
+  }
+
+  /** Box is a range of the sorted 15-bit colors. */
+  private final class Box {
+    private final int lower;
+    private final int upper;
+    private final int population;
+    private final int[] min = {31, 31, 31};
+    private final int[] max = {0, 0, 0};
+
+    Box(int lower, int upper) {
+      this.lower = lower;
+      this.upper = upper;
+      int population = 0;
+      for (int i = lower; i <= upper; i++) {
+        int color = colors[i];
+        population += histogram[color];
+        for (int channel = 0; channel < 3; channel++) {
+          int value = (color >> (10 - channel * 5)) & 0x1F;
+          if (value < min[channel]) min[channel] = value;
+          if (value > max[channel]) max[channel] = value;
+        }
+      }
+      this.population = population;
+    }
+
+    long getVolumePopulation() {
+      long volume = 1;
+      for (int channel = 0; channel < 3; channel++) {
+        volume *= max[channel] - min[channel] + 1;
+      }
+      return volume * population;
+    }
+
+    int getLongestChannel() {
+      int longest = 0;
+      for (int channel = 1; channel < 3; channel++) {
+        if (max[channel] - min[channel] > max[longest] - min[longest]) longest = channel;
+      }
+      return longest;
+    }
+
+    int getAverageColor() {
+      long red = 0;
+      long green = 0;
+      long blue = 0;
+      for (int i = lower; i <= upper; i++) {
+        int color = colors[i];
+        int count = histogram[color];
+        red += (long) expand((color >> 10) & 0x1F) * count;
+        green += (long) expand((color >> 5) & 0x1F) * count;
+        blue += (long) expand(color & 0x1F) * count;
+      }
+      return Color.rgb(
+          (int) ((red + population / 2) / population),
+          (int) ((green + population / 2) / population),
+          (int) ((blue + population / 2) / population));
+    }
+  }
+}
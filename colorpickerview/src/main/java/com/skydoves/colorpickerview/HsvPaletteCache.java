@@ -0,0 +1,243 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HsvPaletteCache is a process-wide cache of rendered HSV wheels keyed by pixel size, so the
+ * default palettes of {@link ColorPickerView}s of the same size share one bitmap.
+ *
+ * <p>A wheel is referenced while a {@link ColorPickerView} using it is attached to a window.
+ * Wheels nobody references are kept in least-recently-used order and evicted when the cache is
+ * larger than its byte budget. Referenced wheels are never evicted, so the cache can exceed the
+ * budget while they are in use.
+ *
+ * <p>A wheel of a new size is rendered on a background thread, and the palettes draw it with their
+ * shaders until it's ready.
+ */
+public final class HsvPaletteCache {
+
+  /** the default byte budget, which holds about four 1080x1080 wheels. */
+  public static final long DEFAULT_MAX_BYTES = 20L * 1024 * 1024;
+
+  private static final HsvPaletteCache instance = new HsvPaletteCache();
+
+  private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // the wheels being rendered, with the callbacks waiting for them.
+  private final Map<Bitmap, List<Runnable>> pendingRenders = new IdentityHashMap<>();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private long maxBytes = DEFAULT_MAX_BYTES;
+  private long byteCount = 0;
+  private int hitCount = 0;
+  private int missCount = 0;
+  private int evictionCount = 0;
+
+  private HsvPaletteCache() {}
+
+  /**
+   * gets the instance of the {@link HsvPaletteCache}.
+   *
+   * @return {@link HsvPaletteCache}.
+   */
+  public static HsvPaletteCache getInstance() {
+    return instance;
+  }
+
+  private static long keyOf(int width, int height) {
+    return ((long) width << 32) | (height & 0xFFFFFFFFL);
+  }
+
+  /**
+   * gets a wheel of the size and references it. it must be released later. A wheel which isn't in
+   * the cache is rendered on the background thread, see {@link #isRendered(Bitmap)}.
+   */
+  synchronized Bitmap acquire(int width, int height) {
+    long key = keyOf(width, height);
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      hitCount++;
+    } else {
+      missCount++;
+      Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+      render(bitmap);
+      entry = new Entry(bitmap);
+      entries.put(key, entry);
+      byteCount += entry.byteCount;
+    }
+    entry.referenceCount++;
+    trimToSize(maxBytes);
+    return entry.bitmap;
+  }
+
+  private void render(Bitmap bitmap) {
+    pendingRenders.put(bitmap, new ArrayList<>());
+    BackgroundExecutor.get()
+        .execute(
+            () -> {
+              ColorHsvPalette.renderWheel(bitmap);
+              mainHandler.post(() -> onRendered(bitmap));
+            });
+  }
+
+  private void onRendered(Bitmap bitmap) {
+    List<Runnable> callbacks;
+    synchronized (this) {
+      callbacks = pendingRenders.remove(bitmap);
+    }
+    if (callbacks == null) return;
+    for (Runnable callback : callbacks) {
+      callback.run();
+    }
+  }
+
+  /**
+   * gets whether a wheel has been rendered. bitmaps which aren't being rendered by the cache are
+   * considered rendered.
+   */
+  synchronized boolean isRendered(Bitmap bitmap) {
+    return !pendingRenders.containsKey(bitmap);
+  }
+
+  /** runs the callback on the main thread once the wheel is rendered, at once if it is already. */
+  void whenRendered(Bitmap bitmap, Runnable callback) {
+    synchronized (this) {
+      List<Runnable> callbacks = pendingRenders.get(bitmap);
+      if (callbacks != null) {
+        callbacks.add(callback);
+        return;
+      }
+    }
+    callback.run();
+  }
+
+  /** references a wheel acquired before again, putting it back if it has been evicted. */
+  synchronized void retain(Bitmap bitmap) {
+    long key = keyOf(bitmap.getWidth(), bitmap.getHeight());
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry(bitmap);
+      entries.put(key, entry);
+      byteCount += entry.byteCount;
+    } else if (entry.bitmap != bitmap) {
+      // another wheel of the same size has replaced it, which keeps being shared instead.
+      return;
+    }
+    entry.referenceCount++;
+    trimToSize(maxBytes);
+  }
+
+  /** releases a reference of a wheel. */
+  synchronized void release(Bitmap bitmap) {
+    Entry entry = entries.get(keyOf(bitmap.getWidth(), bitmap.getHeight()));
+    if (entry != null && entry.bitmap == bitmap && entry.referenceCount > 0) {
+      entry.referenceCount--;
+      trimToSize(maxBytes);
+    }
+  }
+
+  private void trimToSize(long maxBytes) {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (byteCount > maxBytes && iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entry.referenceCount == 0) {
+        iterator.remove();
+        byteCount -= entry.byteCount;
+        evictionCount++;
+      }
+    }
+  }
+
+  /**
+   * sets the byte budget of the wheels, evicting unreferenced wheels over it.
+   *
+   * @param maxBytes the byte budget.
+   */
+  public synchronized void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+    trimToSize(maxBytes);
+  }
+
+  /**
+   * gets the byte budget of the wheels.
+   *
+   * @return the byte budget.
+   */
+  public synchronized long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * gets the bytes of the wheels in the cache.
+   *
+   * @return the bytes of the wheels.
+   */
+  public synchronized long getByteCount() {
+    return byteCount;
+  }
+
+  /**
+   * gets the number of times a requested wheel was in the cache.
+   *
+   * @return the hit count.
+   */
+  public synchronized int getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * gets the number of times a requested wheel had to be rendered.
+   *
+   * @return the miss count.
+   */
+  public synchronized int getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * gets the number of wheels evicted by the byte budget.
+   *
+   * @return the eviction count.
+   */
+  public synchronized int getEvictionCount() {
+    return evictionCount;
+  }
+
+  /** evicts all wheels which are not referenced. */
+  public synchronized void evictAll() {
+    trimToSize(-1);
+  }
+
+  private static final class Entry {
+    private final Bitmap bitmap;
+    private final long byteCount;
+    private int referenceCount = 0;
+
+    private Entry(Bitmap bitmap) {
+      this.bitmap = bitmap;
+      this.byteCount = bitmap.getByteCount();
+    }
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.PointF;
+import androidx.annotation.ColorInt;
+
+/**
+ * HsvWheelSampler samples colors of the {@link ColorHsvPalette} wheel analytically using
+ * precomputed angle and radius tables sized to the wheel.
+ *
+ * <p>The tables cover one quadrant of the wheel and are indexed by the integer pixel offset from
+ * the center, so sampling a touched pixel is a table lookup followed by an integer HSV to RGB
+ * conversion. Selecting a point of a color uses trigonometric tables instead of {@link Math#cos}
+ * and {@link Math#sin}.
+ */
+class HsvWheelSampler implements PaletteSampler {
+
+  /** fixed-point units of a hue degree. */
+  private static final int HUE_UNIT = 64;
+
+  private static final int HUE_SECTOR = 60 * HUE_UNIT;
+  private static final int HUE_MAX = 360 * HUE_UNIT;
+
+  /** fixed-point units of a full saturation. */
+  private static final int SATURATION_UNIT = 2048;
+
+  /** cosine of every degree from 0 to 360, interpolated linearly in between. */
+  private static final float[] COS_TABLE = new float[362];
+
+  static {
+    for (int i = 0; i < COS_TABLE.length; i++) {
+      COS_TABLE[i] = (float) Math.cos(Math.toRadians(i));
+    }
+  }
+
+  private int width;
+  private int height;
+  private float centerX;
+  private float centerY;
+  private float radius;
+  private float fractionX;
+  private float fractionY;
+  private int tableWidth;
+  private int tableHeight;
+  private char[] quadrantHues;
+  private char[] quadrantSaturations;
+
+  /**
+   * rebuilds the tables for the wheel dimensions if the dimensions are changed.
+   *
+   * @param width width of the wheel.
+   * @param height height of the wheel.
+   */
+  void resize(int width, int height) {
+    if (quadrantHues != null && this.width == width && this.height == height) return;
+    this.width = width;
+    this.height = height;
+    this.centerX = width * 0.5f;
+    this.centerY = height * 0.5f;
+    this.radius = Math.min(width, height) * 0.5f;
+    this.fractionX = centerX - (int) centerX;
+    this.fractionY = centerY - (int) centerY;
+    this.tableWidth = (int) Math.ceil(centerX) + 1;
+    this.tableHeight = (int) Math.ceil(centerY) + 1;
+
+    int size = tableWidth * tableHeight;
+    if (quadrantHues == null || quadrantHues.length < size) {
+      quadrantHues = new char[size];
+      quadrantSaturations = new char[size];
+    }
+    for (int iy = 0; iy < tableHeight; iy++) {
+      float dy = iy + fractionY;
+      for (int ix = 0; ix < tableWidth; ix++) {
+        float dx = ix + fractionX;
+        int index = iy * tableWidth + ix;
+        quadrantHues[index] = (char) getQuadrantHue(dx, dy);
+        quadrantSaturations[index] = (char) getSaturation(dx, dy);
+      }
+    }
+  }
+
+  @Override
+  public void onLayout(int width, int height, Matrix imageMatrix) {
+    // the wheel always fills the view, so the image matrix doesn't matter.
+    if (width > 0 && height > 0) resize(width, height);
+  }
+
+  /** returns true if the tables are built for the wheel dimensions. */
+  boolean isBuiltFor(int width, int height) {
+    return quadrantHues != null && this.width == width && this.height == height;
+  }
+
+  /**
+   * gets a color on the specific coordinate of the wheel.
+   *
+   * @param x coordinate x.
+   * @param y coordinate y.
+   * @return the color, or {@link Color#TRANSPARENT} if the coordinate is out of the wheel's
+   *     bounds.
+   */
+  @Override
+  @ColorInt
+  public int colorAt(float x, float y) {
+    if (quadrantHues == null || x < 0 || y < 0 || x >= width || y >= height) {
+      return Color.TRANSPARENT;
+    }
+    float dx = x - centerX;
+    float dy = y - centerY;
+    float absX = Math.abs(dx);
+    float absY = Math.abs(dy);
+    int ix = (int) absX;
+    int iy = (int) absY;
+    int quadrantHue;
+    int saturation;
+    if (x == (int) x && y == (int) y && ix < tableWidth && iy < tableHeight) {
+      int index = iy * tableWidth + ix;
+      quadrantHue = quadrantHues[index];
+      saturation = quadrantSaturations[index];
+    } else {
+      quadrantHue = getQuadrantHue(absX, absY);
+      saturation = getSaturation(absX, absY);
+    }
+
+    int hue;
+    if (dy >= 0) {
+      hue = dx < 0 ? HUE_MAX / 2 + quadrantHue : HUE_MAX - quadrantHue;
+    } else {
+      hue = dx < 0 ? HUE_MAX / 2 - quadrantHue : quadrantHue;
+    }
+    return hsvToColor(hue >= HUE_MAX ? 0 : hue, saturation);
+  }
+
+  /**
+   * gets a coordinate of the wheel which has the hue and saturation of a color.
+   *
+   * @param color color.
+   * @param out the coordinate.
+   * @return true, since every hue and saturation is on the wheel.
+   */
+  @Override
+  public boolean pointOf(@ColorInt int color, PointF out) {
+    int r = Color.red(color);
+    int g = Color.green(color);
+    int b = Color.blue(color);
+    int max = Math.max(r, Math.max(g, b));
+    int delta = max - Math.min(r, Math.min(g, b));
+    if (delta == 0) {
+      out.set((int) centerX, (int) centerY);
+      return true;
+    }
+
+    float hue;
+    if (r == max) {
+      hue = (float) (g - b) / delta;
+    } else if (g == max) {
+      hue = 2 + (float) (b - r) / delta;
+    } else {
+      hue = 4 + (float) (r - g) / delta;
+    }
+    hue *= 60;
+    if (hue < 0) hue += 360;
+
+    float distance = (float) delta / max * Math.min(centerX, centerY);
+    out.set((int) (distance * cos(hue) + centerX), (int) (-distance * cos(hue - 90) + centerY));
+    return true;
+  }
+
+  /**
+   * clamps a coordinate into the circle of the wheel.
+   *
+   * @param x coordinate x.
+   * @param y coordinate y.
+   * @param out the clamped coordinate.
+   */
+  @Override
+  public void clamp(float x, float y, PointF out) {
+    x -= centerX;
+    y -= centerY;
+    double r = Math.sqrt(x * x + y * y);
+    if (r > radius) {
+      x *= radius / r;
+      y *= radius / r;
+    }
+    out.set(x + centerX, y + centerY);
+  }
+
+  private int getQuadrantHue(float dx, float dy) {
+    return (int) (Math.toDegrees(Math.atan2(dy, dx)) * HUE_UNIT + 0.5);
+  }
+
+  private int getSaturation(float dx, float dy) {
+    double distance = Math.sqrt(dx * dx + dy * dy);
+    return (int) (Math.min(1.0, distance / radius) * SATURATION_UNIT + 0.5);
+  }
+
+  /** cosine of a degree using the table. */
+  private static float cos(float degree) {
+    degree %= 360;
+    if (degree < 0) degree += 360;
+    int index = (int) degree;
+    float fraction = degree - index;
+    return COS_TABLE[index] + (COS_TABLE[index + 1] - COS_TABLE[index]) * fraction;
+  }
+
+  /**
+   * converts a fixed-point hue and saturation with the full value to a color using integer
+   * arithmetic.
+   */
+  @ColorInt
+  static int hsvToColor(int hue, int saturation) {
+    int sector = hue / HUE_SECTOR;
+    int fraction = hue - sector * HUE_SECTOR;
+    int divisor = SATURATION_UNIT * HUE_SECTOR;
+    int p = 255 - (255 * saturation + SATURATION_UNIT / 2) / SATURATION_UNIT;
+    int q = 255 - (255 * saturation * fraction + divisor / 2) / divisor;
+    int t = 255 - (255 * saturation * (HUE_SECTOR - fraction) + divisor / 2) / divisor;
+    switch (sector) {
+      case 0:
+        return Color.rgb(255, t, p);
+      case 1:
+        return Color.rgb(q, 255, p);
+      case 2:
+        return Color.rgb(p, 255, t);
+      case 3:
+        return Color.rgb(p, q, 255);
+      case 4:
+        return Color.rgb(t, p, 255);
+      default:
+        return Color.rgb(255, p, q);
+    }
+  }
+}
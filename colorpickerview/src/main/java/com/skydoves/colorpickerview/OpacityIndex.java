@@ -0,0 +1,250 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.graphics.Color;
+import android.graphics.PointF;
+
+/**
+ * OpacityIndex is an opacity mask of a palette with a nearest-opaque-point index built by an exact
+ * Euclidean distance transform.
+ *
+ * <p>The palette's {@link Mask} is sampled on a grid over the view's coordinates, so clamping a
+ * coordinate on a transparent area to the nearest opaque point is a table lookup. The lookup is
+ * global, so concave and multi-island palettes are clamped to the truly nearest opaque point.
+ *
+ * <p>The grid has at most {@link #MAX_GRID_SIZE} cells along one side, so on bigger views the
+ * lookup finds the center of the nearest opaque cell. The coordinate is then refined from that
+ * center toward the touch by bisecting within a couple of cells, so it lands on the palette's edge
+ * instead of a cell center.
+ */
+class OpacityIndex {
+
+  /** Mask tells whether a coordinate of the view is on an opaque point of the palette. */
+  interface Mask {
+
+    /**
+     * returns true if the palette is opaque on a coordinate of the view. it's called on a
+     * background thread.
+     */
+    boolean isOpaque(float x, float y);
+  }
+
+  /** the maximum number of grid cells along one side. */
+  private static final int MAX_GRID_SIZE = 512;
+
+  private static final long INF = Long.MAX_VALUE;
+
+  private final int width;
+  private final int height;
+  private final int step;
+  private final int gridWidth;
+  private final int gridHeight;
+  /** the nearest opaque cell of every cell, or null if every cell is opaque. */
+  private final int[] nearest;
+  private final boolean empty;
+
+  private OpacityIndex(
+      int width,
+      int height,
+      int step,
+      int gridWidth,
+      int gridHeight,
+      int[] nearest,
+      boolean empty) {
+    this.width = width;
+    this.height = height;
+    this.step = step;
+    this.gridWidth = gridWidth;
+    this.gridHeight = gridHeight;
+    this.nearest = nearest;
+    this.empty = empty;
+  }
+
+  /**
+   * builds an opacity index of a palette.
+   *
+   * @param mask the {@link Mask} of the palette.
+   * @param width width of the view.
+   * @param height height of the view.
+   * @return {@link OpacityIndex}.
+   */
+  static OpacityIndex build(Mask mask, int width, int height) {
+    int step = Math.max(1, (Math.max(width, height) + MAX_GRID_SIZE - 1) / MAX_GRID_SIZE);
+    int gridWidth = (width + step - 1) / step;
+    int gridHeight = (height + step - 1) / step;
+    int size = gridWidth * gridHeight;
+
+    boolean[] opaqueCells = new boolean[size];
+    int opaqueCount = 0;
+    for (int gy = 0; gy < gridHeight; gy++) {
+      float y = sample(gy, step, height);
+      for (int gx = 0; gx < gridWidth; gx++) {
+        boolean opaque = mask.isOpaque(sample(gx, step, width), y);
+        opaqueCells[gy * gridWidth + gx] = opaque;
+        if (opaque) opaqueCount++;
+      }
+    }
+
+    int[] nearest = null;
+    if (opaqueCount > 0 && opaqueCount < size) {
+      nearest = transform(opaqueCells, gridWidth, gridHeight);
+    }
+    return new OpacityIndex(
+        width, height, step, gridWidth, gridHeight, nearest, opaqueCount == 0);
+  }
+
+  /**
+   * computes the nearest opaque cell of every cell using the two-pass distance transform by
+   * Felzenszwalb and Huttenlocher.
+   */
+  private static int[] transform(boolean[] mask, int gridWidth, int gridHeight) {
+    // the first pass finds the nearest opaque row in the same column.
+    int[] nearestRow = new int[gridWidth * gridHeight];
+    for (int gx = 0; gx < gridWidth; gx++) {
+      int last = -1;
+      for (int gy = 0; gy < gridHeight; gy++) {
+        if (mask[gy * gridWidth + gx]) last = gy;
+        nearestRow[gy * gridWidth + gx] = last;
+      }
+      last = -1;
+      for (int gy = gridHeight - 1; gy >= 0; gy--) {
+        int index = gy * gridWidth + gx;
+        if (mask[index]) last = gy;
+        int above = nearestRow[index];
+        if (last != -1 && (above == -1 || last - gy < gy - above)) {
+          nearestRow[index] = last;
+        }
+      }
+    }
+
+    // the second pass finds the lower envelope of the column distances along each row.
+    int[] nearest = new int[gridWidth * gridHeight];
+    long[] f = new long[gridWidth];
+    int[] v = new int[gridWidth];
+    double[] z = new double[gridWidth + 1];
+    for (int gy = 0; gy < gridHeight; gy++) {
+      int rowOffset = gy * gridWidth;
+      for (int gx = 0; gx < gridWidth; gx++) {
+        int row = nearestRow[rowOffset + gx];
+        f[gx] = row == -1 ? INF : (long) (gy - row) * (gy - row);
+      }
+
+      int k = -1;
+      for (int q = 0; q < gridWidth; q++) {
+        if (f[q] == INF) continue;
+        double s = Double.NEGATIVE_INFINITY;
+        while (k >= 0) {
+          int p = v[k];
+          s = ((f[q] + (long) q * q) - (f[p] + (long) p * p)) / (2.0 * (q - p));
+          if (s <= z[k]) {
+            k--;
+          } else {
+            break;
+          }
+        }
+        k++;
+        v[k] = q;
+        z[k] = k == 0 ? Double.NEGATIVE_INFINITY : s;
+        z[k + 1] = Double.POSITIVE_INFINITY;
+      }
+
+      k = 0;
+      for (int gx = 0; gx < gridWidth; gx++) {
+        while (z[k + 1] < gx) k++;
+        int column = v[k];
+        nearest[rowOffset + gx] = nearestRow[rowOffset + column] * gridWidth + column;
+      }
+    }
+    return nearest;
+  }
+
+  private static float sample(int cell, int step, int size) {
+    return Math.min(cell * step + step / 2, size - 1);
+  }
+
+  /**
+   * clamps a coordinate to the nearest opaque point of the palette.
+   *
+   * @param sampler the {@link PaletteSampler} of the palette.
+   * @param x coordinate x.
+   * @param y coordinate y.
+   * @param out the clamped coordinate.
+   */
+  void clamp(PaletteSampler sampler, float x, float y, PointF out) {
+    if (empty) {
+      out.set(width / 2, height / 2);
+      return;
+    }
+    int gx = Math.max(0, Math.min(gridWidth - 1, (int) (x / step)));
+    int gy = Math.max(0, Math.min(gridHeight - 1, (int) (y / step)));
+    int cell = gy * gridWidth + gx;
+    int site = nearest != null ? nearest[cell] : cell;
+    if (site == cell
+        && x >= 0
+        && y >= 0
+        && x < width
+        && y < height
+        && sampler.colorAt(x, y) != Color.TRANSPARENT) {
+      out.set(x, y);
+      return;
+    }
+    float siteX = sample(site % gridWidth, step, width);
+    float siteY = sample(site / gridWidth, step, height);
+    if (step == 1) {
+      out.set(siteX, siteY);
+    } else {
+      refine(sampler, x, y, siteX, siteY, out);
+    }
+  }
+
+  /**
+   * bisects between the center of an opaque cell and a coordinate at most two cells away from it
+   * toward the touched coordinate, finding the edge of the palette within half a pixel.
+   */
+  private void refine(
+      PaletteSampler sampler, float x, float y, float siteX, float siteY, PointF out) {
+    float dx = x - siteX;
+    float dy = y - siteY;
+    float distance = (float) Math.sqrt(dx * dx + dy * dy);
+    if (distance == 0) {
+      out.set(siteX, siteY);
+      return;
+    }
+    float reach = Math.min(distance, 2 * step) / distance;
+    float endX = Math.max(0, Math.min(width - 1, siteX + dx * reach));
+    float endY = Math.max(0, Math.min(height - 1, siteY + dy * reach));
+    if (sampler.colorAt(endX, endY) != Color.TRANSPARENT) {
+      out.set(endX, endY);
+      return;
+    }
+    float startX = siteX;
+    float startY = siteY;
+    while (Math.abs(endX - startX) + Math.abs(endY - startY) > 0.5f) {
+      float centerX = (startX + endX) / 2;
+      float centerY = (startY + endY) / 2;
+      if (sampler.colorAt(centerX, centerY) != Color.TRANSPARENT) {
+        startX = centerX;
+        startY = centerY;
+      } else {
+        endX = centerX;
+        endY = centerY;
+      }
+    }
+    out.set(startX, startY);
+  }
+}
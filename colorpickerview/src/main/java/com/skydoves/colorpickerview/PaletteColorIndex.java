@@ -0,0 +1,201 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import androidx.annotation.ColorInt;
+import androidx.annotation.Nullable;
+
+/**
+ * PaletteColorIndex is a k-d tree over the distinct RGB colors of a palette bitmap, so the pixel
+ * nearest to a color is found in logarithmic time instead of scanning the whole bitmap.
+ *
+ * <p>Each distinct color keeps the first pixel having it, and transparent pixels are skipped.
+ * Bitmaps bigger than {@link #MAX_INDEXED_PIXELS} are indexed on an evenly spaced subset of their
+ * pixels. The tree is implicit: the median of every range is its node, and the ranges before and
+ * after the median are its subtrees, splitting by red, green and blue by turns.
+ */
+class PaletteColorIndex {
+
+  /** the maximum number of pixels read to build an index. */
+  static final int MAX_INDEXED_PIXELS = 1 << 20;
+
+  private final Bitmap bitmap;
+  private final int generationId;
+  private final int width;
+  private final int size;
+  private final int[] colors;
+  private final int[] positions;
+
+  // the state of the running search.
+  private int bestIndex;
+  private int bestDistance;
+
+  /**
+   * builds an index of the bitmap's pixels.
+   *
+   * @param bitmap the palette bitmap.
+   * @param snapshot a snapshot of the bitmap to read the pixels from, or null to read the bitmap.
+   */
+  PaletteColorIndex(Bitmap bitmap, @Nullable PaletteSnapshot snapshot) {
+    this.bitmap = bitmap;
+    this.generationId = bitmap.getGenerationId();
+    this.width = bitmap.getWidth();
+    int height = bitmap.getHeight();
+    long pixelCount = (long) width * height;
+    int step = (int) Math.max(1, Math.ceil(Math.sqrt((double) pixelCount / MAX_INDEXED_PIXELS)));
+
+    // one bit per 24-bit RGB color.
+    long[] seen = new long[1 << 18];
+    int[] row = snapshot == null ? new int[width] : null;
+    int[] colors = new int[(int) Math.min(pixelCount, 4096)];
+    int[] positions = new int[colors.length];
+    int count = 0;
+    for (int y = 0; y < height; y += step) {
+      if (row != null) bitmap.getPixels(row, 0, width, 0, y, width, 1);
+      for (int x = 0; x < width; x += step) {
+        int pixel = row != null ? row[x] : snapshot.getPixel(x, y);
+        if (Color.alpha(pixel) == 0) continue;
+        int rgb = pixel & 0xFFFFFF;
+        if ((seen[rgb >>> 6] & (1L << rgb)) != 0) continue;
+        seen[rgb >>> 6] |= 1L << rgb;
+        if (count == colors.length) {
+          int capacity = colors.length * 2;
+          int[] grownColors = new int[capacity];
+          int[] grownPositions = new int[capacity];
+          System.arraycopy(colors, 0, grownColors, 0, count);
+          System.arraycopy(positions, 0, grownPositions, 0, count);
+          colors = grownColors;
+          positions = grownPositions;
+        }
+        colors[count] = rgb;
+        positions[count] = y * width + x;
+        count++;
+      }
+    }
+    this.size = count;
+    this.colors = colors;
+    this.positions = positions;
+    build(0, count, 0);
+  }
+
+  /** returns true if this index holds the current pixels of the bitmap. */
+  boolean isBuiltFrom(Bitmap bitmap) {
+    return this.bitmap == bitmap && generationId == bitmap.getGenerationId();
+  }
+
+  /** returns true if the bitmap has no opaque pixel. */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * finds the pixel whose color is the nearest to a color in the RGB space.
+   *
+   * @param color color.
+   * @return the pixel position as {@code y * width + x}, or -1 if the index is empty.
+   */
+  int nearest(@ColorInt int color) {
+    if (size == 0) return -1;
+    bestIndex = -1;
+    bestDistance = Integer.MAX_VALUE;
+    search(0, size, 0, Color.red(color), Color.green(color), Color.blue(color));
+    return positions[bestIndex];
+  }
+
+  /** gets the x coordinate of a pixel position. */
+  int getX(int position) {
+    return position % width;
+  }
+
+  /** gets the y coordinate of a pixel position. */
+  int getY(int position) {
+    return position / width;
+  }
+
+  private void search(int from, int to, int axis, int red, int green, int blue) {
+    if (from >= to || bestDistance == 0) return;
+    int median = (from + to) >>> 1;
+    int color = colors[median];
+    int dr = red - Color.red(color);
+    int dg = green - Color.green(color);
+    int db = blue - Color.blue(color);
+    int distance = dr * dr + dg * dg + db * db;
+    if (distance < bestDistance) {
+      bestDistance = distance;
+      bestIndex = median;
+    }
+
+    int delta = axis == 0 ? dr : axis == 1 ? dg : db;
+    int next = axis == 2 ? 0 : axis + 1;
+    if (delta < 0) {
+      search(from, median, next, red, green, blue);
+      if (delta * delta < bestDistance) search(median + 1, to, next, red, green, blue);
+    } else {
+      search(median + 1, to, next, red, green, blue);
+      if (delta * delta < bestDistance) search(from, median, next, red, green, blue);
+    }
+  }
+
+  /** arranges the range as a subtree, placing its median by the axis in the middle. */
+  private void build(int from, int to, int axis) {
+    while (to - from > 1) {
+      int median = (from + to) >>> 1;
+      select(from, to - 1, median, axis);
+      int next = axis == 2 ? 0 : axis + 1;
+      build(from, median, next);
+      from = median + 1;
+      axis = next;
+    }
+  }
+
+  /** moves the k-th smallest color of the range by the axis to k, using quickselect. */
+  private void select(int left, int right, int k, int axis) {
+    int shift = 16 - axis * 8;
+    while (left < right) {
+      int pivot = (colors[(left + right) >>> 1] >> shift) & 0xFF;
+      int i = left;
+      int j = right;
+      while (i <= j) {
+        while (((colors[i] >> shift) & 0xFF) < pivot) i++;
+        while (((colors[j] >> shift) & 0xFF) > pivot) j--;
+        if (i <= j) {
+          swap(i, j);
+          i++;
+          j--;
+        }
+      }
+      if (k <= j) {
+        right = j;
+      } else if (k >= i) {
+        left = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void swap(int i, int j) {
+    int color = colors[i];
+    colors[i] = colors[j];
+    colors[j] = color;
+    int position = positions[i];
+    positions[i] = positions[j];
+    positions[j] = position;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.PointF;
+import androidx.annotation.ColorInt;
+
+/**
+ * PaletteSampler looks up the colors and coordinates of a palette of the {@link ColorPickerView}.
+ *
+ * <p>The picker chooses a sampler once whenever its palette is changed and dispatches every touch
+ * to it, so each kind of palette is sampled in the fastest way for it. The {@link ColorHsvPalette}
+ * is sampled analytically and image palettes are sampled from a copy of their pixels. A custom
+ * palette can be sampled by its own sampler using {@link
+ * ColorPickerView#setPaletteSampler(PaletteSampler)}.
+ *
+ * <p>All coordinates are the coordinates of the {@link ColorPickerView}.
+ */
+public interface PaletteSampler {
+
+  /**
+   * called when the palette is laid out on the {@link ColorPickerView}, before it is sampled.
+   *
+   * @param width width of the {@link ColorPickerView}.
+   * @param height height of the {@link ColorPickerView}.
+   * @param imageMatrix the matrix drawing the palette drawable on the view. it must be copied to
+   *     be kept.
+   */
+  void onLayout(int width, int height, Matrix imageMatrix);
+
+  /**
+   * gets a color on the specific coordinate of the palette.
+   *
+   * @param x coordinate x.
+   * @param y coordinate y.
+   * @return the color, or {@link Color#TRANSPARENT} if there is no palette on the coordinate.
+   */
+  @ColorInt
+  int colorAt(float x, float y);
+
+  /**
+   * gets a coordinate of the palette showing a color.
+   *
+   * @param color color.
+   * @param out the coordinate.
+   * @return true if a coordinate is found, false if the palette can't look up colors.
+   */
+  boolean pointOf(@ColorInt int color, PointF out);
+
+  /**
+   * clamps a coordinate to the nearest selectable coordinate of the palette.
+   *
+   * @param x coordinate x.
+   * @param y coordinate y.
+   * @param out the clamped coordinate.
+   */
+  void clamp(float x, float y, PointF out);
+}
@@ -0,0 +1,71 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.graphics.Bitmap;
+import androidx.annotation.ColorInt;
+
+/**
+ * PaletteSnapshot is a primitive copy of a palette bitmap's pixels, so sampling a color doesn't
+ * need to call {@link Bitmap#getPixel(int, int)} for every lookup.
+ */
+class PaletteSnapshot {
+
+  private final Bitmap bitmap;
+  private final int generationId;
+  private final int width;
+  private final int height;
+  private final int[] pixels;
+
+  PaletteSnapshot(Bitmap bitmap) {
+    this.bitmap = bitmap;
+    this.generationId = bitmap.getGenerationId();
+    this.width = bitmap.getWidth();
+    this.height = bitmap.getHeight();
+    this.pixels = new int[width * height];
+    bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+  }
+
+  /** returns true if this snapshot holds the current pixels of the bitmap. */
+  boolean isSnapshotOf(Bitmap bitmap) {
+    return this.bitmap == bitmap && generationId == bitmap.getGenerationId();
+  }
+
+  /** returns true if this snapshot has been copied from the bitmap. */
+  boolean isCopiedFrom(Bitmap bitmap) {
+    return this.bitmap == bitmap;
+  }
+
+  /** gets a pixel color on the specific coordinate of the bitmap. */
+  @ColorInt
+  int getPixel(int x, int y) {
+    return pixels[y * width + x];
+  }
+
+  int getWidth() {
+    return width;
+  }
+
+  int getHeight() {
+    return height;
+  }
+
+  /** gets the number of bytes retained by the copied pixels. */
+  long getByteCount() {
+    return (long) pixels.length * Integer.BYTES;
+  }
+}
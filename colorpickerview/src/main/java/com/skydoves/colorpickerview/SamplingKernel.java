@@ -0,0 +1,32 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+/**
+ * SamplingKernel controls how a color is sampled from an image palette of the {@link
+ * ColorPickerView}.
+ */
+public enum SamplingKernel {
+  /** samples a single pixel. */
+  PIXEL,
+
+  /** samples the average color of a square box around the pixel. */
+  BOX,
+
+  /** samples the Gaussian-weighted average color of a square around the pixel. */
+  GAUSSIAN
+}
@@ -0,0 +1,185 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.ColorInt;
+import androidx.annotation.Nullable;
+
+/**
+ * SnapColorTable maps every color to the nearest of a set of allowed colors in constant time.
+ *
+ * <p>The RGB cube is quantized to 32 levels per channel, and each of the 32768 cells keeps the
+ * index of the allowed color nearest to its center in the RGB space, so snapping a color is a
+ * single lookup however many colors are allowed. A color in a cell shared by two allowed colors
+ * may snap to the one nearer to the cell's center, and an allowed color always snaps to itself.
+ *
+ * <p>Building compares every cell with every allowed color, so the colors are limited to {@link
+ * #MAX_COLORS}, which builds in about 33 million comparisons.
+ */
+final class SnapColorTable {
+
+  /** the maximum number of allowed colors. */
+  static final int MAX_COLORS = 1024;
+
+  private static final int BITS = 5;
+  private static final int LEVELS = 1 << BITS;
+
+  private final int[] colors;
+  private final char[] table;
+  // an open addressing hash of the allowed colors: their RGB plus one, and their indexes.
+  private final int[] keys;
+  private final char[] indexes;
+  private final int hashShift;
+
+  private SnapColorTable(int[] colors, char[] table) {
+    this.colors = colors;
+    this.table = table;
+    int capacity = Integer.highestOneBit(colors.length) * 4;
+    this.keys = new int[capacity];
+    this.indexes = new char[capacity];
+    this.hashShift = 32 - Integer.numberOfTrailingZeros(capacity);
+    for (int i = colors.length - 1; i >= 0; i--) {
+      int key = (colors[i] & 0xFFFFFF) + 1;
+      int slot = slot(key);
+      while (keys[slot] != 0 && keys[slot] != key) slot = (slot + 1) & (capacity - 1);
+      keys[slot] = key;
+      indexes[slot] = (char) i;
+    }
+  }
+
+  /**
+   * snaps a color to the nearest allowed color.
+   *
+   * @param color color.
+   * @return the allowed color.
+   */
+  @ColorInt
+  int snap(@ColorInt int color) {
+    return colors[indexOf(color)];
+  }
+
+  /**
+   * gets the index of the allowed color a color snaps to.
+   *
+   * @param color color.
+   * @return the index of the allowed color.
+   */
+  int indexOf(@ColorInt int color) {
+    int rgb = color & 0xFFFFFF;
+    // an allowed color sharing its cell with one nearer to the center still snaps to itself.
+    int key = rgb + 1;
+    for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & (keys.length - 1)) {
+      if (keys[slot] == key) return indexes[slot];
+    }
+    return table[index(rgb)];
+  }
+
+  /** gets the allowed color of an index. */
+  @ColorInt
+  int getColor(int index) {
+    return colors[index];
+  }
+
+  /** gets the number of allowed colors. */
+  int size() {
+    return colors.length;
+  }
+
+  private int slot(int key) {
+    return (key * 0x9E3779B9) >>> hashShift;
+  }
+
+  private static int index(int rgb) {
+    return ((rgb >> (24 - BITS)) & (LEVELS - 1)) << (BITS * 2)
+        | ((rgb >> (16 - BITS)) & (LEVELS - 1)) << BITS
+        | ((rgb >> (8 - BITS)) & (LEVELS - 1));
+  }
+
+  /**
+   * builds a table of allowed colors.
+   *
+   * @param colors the allowed colors, at most {@link #MAX_COLORS} and at least one.
+   * @param task the task building the table, checked for cancellation, or null.
+   * @return {@link SnapColorTable}, or null if the task has been canceled.
+   */
+  @Nullable
+  static SnapColorTable build(int[] colors, @Nullable BuildTask task) {
+    char[] table = new char[LEVELS * LEVELS * LEVELS];
+    int half = 1 << (7 - BITS);
+    for (int r = 0; r < LEVELS; r++) {
+      if (task != null && task.canceled) return null;
+      int red = (r << (8 - BITS)) + half;
+      for (int g = 0; g < LEVELS; g++) {
+        int green = (g << (8 - BITS)) + half;
+        for (int b = 0; b < LEVELS; b++) {
+          int blue = (b << (8 - BITS)) + half;
+          int best = 0;
+          int bestDistance = Integer.MAX_VALUE;
+          for (int i = 0; i < colors.length; i++) {
+            int dr = red - Color.red(colors[i]);
+            int dg = green - Color.green(colors[i]);
+            int db = blue - Color.blue(colors[i]);
+            int distance = dr * dr + dg * dg + db * db;
+            if (distance < bestDistance) {
+              bestDistance = distance;
+              best = i;
+            }
+          }
+          table[(r << (BITS * 2)) | (g << BITS) | b] = (char) best;
+        }
+      }
+    }
+    return new SnapColorTable(colors, table);
+  }
+
+  /** BuildTask builds a table on a background thread and delivers it on the main thread. */
+  static final class BuildTask implements Runnable {
+
+    /** Callback is invoked on the main thread with the built table. */
+    interface Callback {
+      void onBuilt(SnapColorTable snapColorTable);
+    }
+
+    private final int[] colors;
+    private final Callback callback;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean canceled = false;
+
+    BuildTask(int[] colors, Callback callback) {
+      this.colors = colors;
+      this.callback = callback;
+    }
+
+    /** cancels the build. the callback will not be invoked. */
+    void cancel() {
+      canceled = true;
+    }
+
+    @Override
+    public void run() {
+      final SnapColorTable snapColorTable = build(colors, this);
+      if (snapColorTable == null) return;
+      mainHandler.post(
+          () -> {
+            if (!canceled) callback.onBuilt(snapColorTable);
+          });
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import android.graphics.Color;
+import androidx.annotation.ColorInt;
+
+/**
+ * SummedAreaTable is a per-channel summed-area table of a {@link PaletteSnapshot}, so averaging the
+ * colors of any box on the palette costs the same regardless of the box size.
+ *
+ * <p>Color channels are weighted by alpha, so transparent pixels don't darken the average. Sums
+ * are kept in wrapping integers; a box sum is correct as long as the box itself doesn't overflow,
+ * which {@link #MAX_KERNEL_SIZE} guarantees.
+ *
+ * <p>The table retains 16 bytes per pixel, so it's built only for snapshots up to {@link
+ * #MAX_PIXELS}. Bigger palettes, and palettes whose table isn't built yet, are averaged by {@link
+ * #sampleDirectly(PaletteSnapshot, int, int, Kernel)} with the same result.
+ */
+class SummedAreaTable {
+
+  /** the maximum width/height of a sampling kernel. */
+  static final int MAX_KERNEL_SIZE = 101;
+
+  /** the maximum pixel count of a snapshot to build a table for, which retains 8 MB. */
+  static final int MAX_PIXELS = 512 * 1024;
+
+  /** the maximum number of nested boxes approximating a Gaussian kernel. */
+  private static final int MAX_GAUSSIAN_BOXES = 4;
+
+  private final PaletteSnapshot snapshot;
+  private final int width;
+  private final int height;
+  private final int stride;
+  private final int[] alphaSums;
+  private final int[] redSums;
+  private final int[] greenSums;
+  private final int[] blueSums;
+
+  SummedAreaTable(PaletteSnapshot snapshot) {
+    this.snapshot = snapshot;
+    this.width = snapshot.getWidth();
+    this.height = snapshot.getHeight();
+    this.stride = width + 1;
+    int size = stride * (height + 1);
+    this.alphaSums = new int[size];
+    this.redSums = new int[size];
+    this.greenSums = new int[size];
+    this.blueSums = new int[size];
+
+    for (int y = 0; y < height; y++) {
+      int alphaRow = 0;
+      int redRow = 0;
+      int greenRow = 0;
+      int blueRow = 0;
+      int index = (y + 1) * stride + 1;
+      for (int x = 0; x < width; x++, index++) {
+        int pixel = snapshot.getPixel(x, y);
+        int alpha = Color.alpha(pixel);
+        alphaRow += alpha;
+        redRow += Color.red(pixel) * alpha;
+        greenRow += Color.green(pixel) * alpha;
+        blueRow += Color.blue(pixel) * alpha;
+        alphaSums[index] = alphaSums[index - stride] + alphaRow;
+        redSums[index] = redSums[index - stride] + redRow;
+        greenSums[index] = greenSums[index - stride] + greenRow;
+        blueSums[index] = blueSums[index - stride] + blueRow;
+      }
+    }
+  }
+
+  /** returns true if this table has been built from the snapshot. */
+  boolean isBuiltFrom(PaletteSnapshot snapshot) {
+    return this.snapshot == snapshot;
+  }
+
+  /**
+   * samples the weighted average color of the nested boxes of the kernel around a pixel.
+   *
+   * @param x coordinate x of the pixel.
+   * @param y coordinate y of the pixel.
+   * @param kernel {@link Kernel}.
+   * @return the sampled color.
+   */
+  @ColorInt
+  int sample(int x, int y, Kernel kernel) {
+    float alpha = 0;
+    float red = 0;
+    float green = 0;
+    float blue = 0;
+    for (int i = 0; i < kernel.radii.length; i++) {
+      int radius = kernel.radii[i];
+      int left = Math.max(0, x - radius);
+      int top = Math.max(0, y - radius);
+      int right = Math.min(width, x + radius + 1);
+      int bottom = Math.min(height, y + radius + 1);
+      float weight = kernel.weights[i] / ((right - left) * (bottom - top));
+      alpha += weight * getSum(alphaSums, left, top, right, bottom);
+      red += weight * getSum(redSums, left, top, right, bottom);
+      green += weight * getSum(greenSums, left, top, right, bottom);
+      blue += weight * getSum(blueSums, left, top, right, bottom);
+    }
+    if (alpha <= 0) return snapshot.getPixel(x, y);
+    return toColor(alpha, red, green, blue);
+  }
+
+  /**
+   * samples the weighted average color of the nested boxes of the kernel around a pixel by
+   * summing the pixels of the snapshot directly, without a table. it costs the area of the boxes,
+   * at most {@link #MAX_KERNEL_SIZE} squared for a box kernel.
+   *
+   * @param snapshot {@link PaletteSnapshot}.
+   * @param x coordinate x of the pixel.
+   * @param y coordinate y of the pixel.
+   * @param kernel {@link Kernel}.
+   * @return the sampled color, the same as {@link #sample(int, int, Kernel)} of a table.
+   */
+  @ColorInt
+  static int sampleDirectly(PaletteSnapshot snapshot, int x, int y, Kernel kernel) {
+    float alpha = 0;
+    float red = 0;
+    float green = 0;
+    float blue = 0;
+    for (int i = 0; i < kernel.radii.length; i++) {
+      int radius = kernel.radii[i];
+      int left = Math.max(0, x - radius);
+      int top = Math.max(0, y - radius);
+      int right = Math.min(snapshot.getWidth(), x + radius + 1);
+      int bottom = Math.min(snapshot.getHeight(), y + radius + 1);
+      int alphaSum = 0;
+      int redSum = 0;
+      int greenSum = 0;
+      int blueSum = 0;
+      for (int row = top; row < bottom; row++) {
+        for (int column = left; column < right; column++) {
+          int pixel = snapshot.getPixel(column, row);
+          int pixelAlpha = Color.alpha(pixel);
+          alphaSum += pixelAlpha;
+          redSum += Color.red(pixel) * pixelAlpha;
+          greenSum += Color.green(pixel) * pixelAlpha;
+          blueSum += Color.blue(pixel) * pixelAlpha;
+        }
+      }
+      float weight = kernel.weights[i] / ((right - left) * (bottom - top));
+      alpha += weight * alphaSum;
+      red += weight * redSum;
+      green += weight * greenSum;
+      blue += weight * blueSum;
+    }
+    if (alpha <= 0) return snapshot.getPixel(x, y);
+    return toColor(alpha, red, green, blue);
+  }
+
+  @ColorInt
+  private static int toColor(float alpha, float red, float green, float blue) {
+    return Color.argb(
+        Math.round(alpha),
+        Math.round(red / alpha),
+        Math.round(green / alpha),
+        Math.round(blue / alpha));
+  }
+
+  private int getSum(int[] sums, int left, int top, int right, int bottom) {
+    return sums[bottom * stride + right]
+        - sums[top * stride + right]
+        - sums[bottom * stride + left]
+        + sums[top * stride + left];
+  }
+
+  /** gets the number of bytes retained by the table. */
+  long getByteCount() {
+    return (long) alphaSums.length * Integer.BYTES * 4;
+  }
+
+  /**
+   * Kernel is a set of nested boxes with weights. A box kernel is a single box, and a Gaussian
+   * kernel is approximated by up to {@link #MAX_GAUSSIAN_BOXES} concentric boxes whose stacked
+   * weights follow a Gaussian profile with the sigma of the half of the kernel radius.
+   */
+  static final class Kernel {
+    private final int[] radii;
+    private final float[] weights;
+
+    private Kernel(int[] radii, float[] weights) {
+      this.radii = radii;
+      this.weights = weights;
+    }
+
+    /**
+     * creates a kernel, or returns null if the kernel samples a single pixel.
+     *
+     * @param samplingKernel {@link SamplingKernel}.
+     * @param size the width/height of the kernel in palette pixels.
+     * @return {@link Kernel}.
+     */
+    static Kernel of(SamplingKernel samplingKernel, int size) {
+      int radius = Math.min(size, MAX_KERNEL_SIZE) / 2;
+      if (samplingKernel == SamplingKernel.PIXEL || radius < 1) return null;
+      if (samplingKernel == SamplingKernel.BOX) {
+        return new Kernel(new int[] {radius}, new float[] {1f});
+      }
+
+      int count = Math.min(radius, MAX_GAUSSIAN_BOXES);
+      int[] radii = new int[count];
+      for (int i = 0; i < count; i++) {
+        radii[i] = Math.round(radius * (i + 1) / (float) count);
+      }
+
+      // the weight of a pixel is the sum of the weights of all boxes containing it divided by
+      // their areas, so each box contributes the step between two neighboring ring levels.
+      float sigma = radius * 0.5f;
+      float[] levels = new float[count + 1];
+      for (int i = 0; i < count; i++) {
+        float inner = i == 0 ? 0 : radii[i - 1];
+        float distance = (inner + radii[i]) * 0.5f;
+        levels[i] = (float) Math.exp(-distance * distance / (2 * sigma * sigma));
+      }
+      float[] weights = new float[count];
+      float total = 0;
+      for (int i = 0; i < count; i++) {
+        int side = radii[i] * 2 + 1;
+        weights[i] = (levels[i] - levels[i + 1]) * side * side;
+        total += weights[i];
+      }
+      for (int i = 0; i < count; i++) {
+        weights[i] /= total;
+      }
+      return new Kernel(radii, weights);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.skydoves.colorpickerview.listeners;
+
+import com.skydoves.colorpickerview.DominantColor;
+import java.util.List;
+
+/**
+ * DominantColorsListener is invoked when the dominant colors of a palette have been extracted by
+ * {@link com.skydoves.colorpickerview.ColorPickerView}.
+ */
+public interface DominantColorsListener {
+  /**
+   * invoked on the main thread with the dominant colors.
+   *
+   * @param dominantColors the dominant colors ranked by population, most populous first.
+   */
+  void onDominantColorsExtracted(List<DominantColor> dominantColors);
+}
@@ -19,12 +19,24 @@ package com.skydoves.colorpickerview.preference;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.graphics.Point;
+import android.os.Handler;
+import android.os.Looper;
 import com.skydoves.colorpickerview.ColorPickerView;
+import androidx.annotation.MainThread;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ColorPickerPreferenceManager implements {@link SharedPreferences}
  *
  * <p>for {@link com.skydoves.colorpickerview.ColorPickerView}.
+ *
+ * <p>The data is kept in a {@link ColorPickerStorage}, which is backed by the {@link
+ * SharedPreferences} by default and can be replaced by {@link #setStorage(ColorPickerStorage)}.
  */
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class ColorPickerPreferenceManager {
@@ -35,11 +47,21 @@ public class ColorPickerPreferenceManager {
   protected static final String AlphaSlider = "_SLIDER_ALPHA";
   protected static final String BrightnessSlider = "_SLIDER_BRIGHTNESS";
   private static ColorPickerPreferenceManager colorPickerPreferenceManager;
-  private final SharedPreferences sharedPreferences;
+  private volatile ColorPickerStorage storage;
+  private volatile boolean loaded = false;
+  private boolean loading = false;
+  private Executor loadExecutor;
+
+  // saves of ColorPickerViews waiting for the write-behind window, keyed by preference name.
+  private final Map<String, PickerData> pendingData = new HashMap<>();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final Runnable writeBehindRunnable = this::flush;
+  private long writeBehindDuration = 0;
 
   private ColorPickerPreferenceManager(Context context) {
-    sharedPreferences =
-        context.getSharedPreferences(context.getPackageName(), Context.MODE_PRIVATE);
+    storage =
+        new SharedPreferencesStorage(
+            context.getSharedPreferences(context.getPackageName(), Context.MODE_PRIVATE));
   }
 
   /**
@@ -63,7 +85,7 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public ColorPickerPreferenceManager setColor(String name, int color) {
-    sharedPreferences.edit().putInt(getColorName(name), color).apply();
+    edit(name).setColor(color).apply();
     return colorPickerPreferenceManager;
   }
 
@@ -75,7 +97,9 @@ public class ColorPickerPreferenceManager {
    * @return the saved color.
    */
   public int getColor(String name, int defaultColor) {
-    return sharedPreferences.getInt(getColorName(name), defaultColor);
+    PickerData data = getPendingData(name);
+    if (data != null) return data.color;
+    return storage.getInt(name, ColorPickerStorage.FIELD_COLOR, defaultColor);
   }
 
   /**
@@ -85,7 +109,9 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public ColorPickerPreferenceManager clearSavedColor(String name) {
-    sharedPreferences.edit().remove(getColorName(name)).apply();
+    ColorPickerStorage.Editor editor = storage.edit();
+    drainPendingData(name, editor);
+    editor.remove(name, ColorPickerStorage.FIELD_COLOR).apply();
     return colorPickerPreferenceManager;
   }
 
@@ -97,8 +123,7 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public ColorPickerPreferenceManager setSelectorPosition(String name, Point position) {
-    sharedPreferences.edit().putInt(getSelectorXName(name), position.x).apply();
-    sharedPreferences.edit().putInt(getSelectorYName(name), position.y).apply();
+    edit(name).setSelectorPosition(position).apply();
     return colorPickerPreferenceManager;
   }
 
@@ -110,9 +135,11 @@ public class ColorPickerPreferenceManager {
    * @return the saved selector position.
    */
   public Point getSelectorPosition(String name, Point defaultPoint) {
+    PickerData data = getPendingData(name);
+    if (data != null) return new Point(data.selectorX, data.selectorY);
     return new Point(
-        sharedPreferences.getInt(getSelectorXName(name), defaultPoint.x),
-        sharedPreferences.getInt(getSelectorYName(name), defaultPoint.y));
+        storage.getInt(name, ColorPickerStorage.FIELD_SELECTOR_X, defaultPoint.x),
+        storage.getInt(name, ColorPickerStorage.FIELD_SELECTOR_Y, defaultPoint.y));
   }
 
   /**
@@ -122,8 +149,12 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public ColorPickerPreferenceManager clearSavedSelectorPosition(String name) {
-    sharedPreferences.edit().remove(getSelectorXName(name)).apply();
-    sharedPreferences.edit().remove(getSelectorYName(name)).apply();
+    ColorPickerStorage.Editor editor = storage.edit();
+    drainPendingData(name, editor);
+    editor
+        .remove(name, ColorPickerStorage.FIELD_SELECTOR_X)
+        .remove(name, ColorPickerStorage.FIELD_SELECTOR_Y)
+        .apply();
     return colorPickerPreferenceManager;
   }
 
@@ -135,7 +166,7 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public ColorPickerPreferenceManager setAlphaSliderPosition(String name, int position) {
-    sharedPreferences.edit().putInt(getAlphaSliderName(name), position).apply();
+    edit(name).setAlphaSliderPosition(position).apply();
     return colorPickerPreferenceManager;
   }
 
@@ -147,7 +178,9 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public int getAlphaSliderPosition(String name, int defaultPosition) {
-    return sharedPreferences.getInt(getAlphaSliderName(name), defaultPosition);
+    PickerData data = getPendingData(name);
+    if (data != null && data.hasAlphaSlider) return data.alphaSliderPosition;
+    return storage.getInt(name, ColorPickerStorage.FIELD_ALPHA_SLIDER, defaultPosition);
   }
 
   /**
@@ -157,7 +190,9 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public ColorPickerPreferenceManager clearSavedAlphaSliderPosition(String name) {
-    sharedPreferences.edit().remove(getAlphaSliderName(name)).apply();
+    ColorPickerStorage.Editor editor = storage.edit();
+    drainPendingData(name, editor);
+    editor.remove(name, ColorPickerStorage.FIELD_ALPHA_SLIDER).apply();
     return colorPickerPreferenceManager;
   }
 
@@ -170,7 +205,7 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public ColorPickerPreferenceManager setBrightnessSliderPosition(String name, int position) {
-    sharedPreferences.edit().putInt(getBrightnessSliderName(name), position).apply();
+    edit(name).setBrightnessSliderPosition(position).apply();
     return colorPickerPreferenceManager;
   }
 
@@ -182,7 +217,9 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public int getBrightnessSliderPosition(String name, int defaultPosition) {
-    return sharedPreferences.getInt(getBrightnessSliderName(name), defaultPosition);
+    PickerData data = getPendingData(name);
+    if (data != null && data.hasBrightnessSlider) return data.brightnessSliderPosition;
+    return storage.getInt(name, ColorPickerStorage.FIELD_BRIGHTNESS_SLIDER, defaultPosition);
   }
 
   /**
@@ -192,26 +229,49 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public ColorPickerPreferenceManager clearSavedBrightnessSlider(String name) {
-    sharedPreferences.edit().remove(getBrightnessSliderName(name)).apply();
+    ColorPickerStorage.Editor editor = storage.edit();
+    drainPendingData(name, editor);
+    editor.remove(name, ColorPickerStorage.FIELD_BRIGHTNESS_SLIDER).apply();
     return colorPickerPreferenceManager;
   }
 
+  /**
+   * starts a transaction that saves the data of a {@link ColorPickerView} on the preference.
+   *
+   * <p>All values set on the {@link Editor} are written in one preference editor by {@link
+   * Editor#apply()} or {@link Editor#commit()}.
+   *
+   * @param name preference name.
+   * @return {@link Editor}.
+   */
+  public Editor edit(String name) {
+    ColorPickerStorage.Editor editor = storage.edit();
+    drainPendingData(name, editor);
+    return new Editor(name, editor);
+  }
+
   /**
    * saves all data of the {@link ColorPickerView} on the preference.
    *
+   * <p>All fields are written in one transaction. If a write-behind duration is set, the data is
+   * held in memory and written after the duration, and repeated saves of the same preference name
+   * within it are coalesced into one write.
+   *
    * @param colorPickerView {@link ColorPickerView}.
    */
   public void saveColorPickerData(ColorPickerView colorPickerView) {
     if (colorPickerView != null && colorPickerView.getPreferenceName() != null) {
-      String name = colorPickerView.getPreferenceName();
-      setColor(name, colorPickerView.getColor());
-      setSelectorPosition(name, colorPickerView.getSelectedPoint());
-
-      if (colorPickerView.getAlphaSlideBar() != null) {
-        setAlphaSliderPosition(name, colorPickerView.getAlphaSlideBar().getSelectedX());
-      }
-      if (colorPickerView.getBrightnessSlider() != null) {
-        setBrightnessSliderPosition(name, colorPickerView.getBrightnessSlider().getSelectedX());
+      PickerData data = new PickerData(colorPickerView);
+      if (writeBehindDuration > 0) {
+        synchronized (pendingData) {
+          boolean scheduled = !pendingData.isEmpty();
+          pendingData.put(colorPickerView.getPreferenceName(), data);
+          if (!scheduled) mainHandler.postDelayed(writeBehindRunnable, writeBehindDuration);
+        }
+      } else {
+        Editor editor = edit(colorPickerView.getPreferenceName());
+        data.putOn(editor);
+        editor.apply();
       }
     }
   }
@@ -224,13 +284,12 @@ public class ColorPickerPreferenceManager {
   public void restoreColorPickerData(ColorPickerView colorPickerView) {
     if (colorPickerView != null && colorPickerView.getPreferenceName() != null) {
       String name = colorPickerView.getPreferenceName();
-      colorPickerView.setPureColor(getColor(name, -1));
+      int color = getColor(name, -1);
+      colorPickerView.setPureColor(color);
       Point defaultPoint =
           new Point(colorPickerView.getWidth() / 2, colorPickerView.getMeasuredHeight() / 2);
-      colorPickerView.moveSelectorPoint(
-          getSelectorPosition(name, defaultPoint).x,
-          getSelectorPosition(name, defaultPoint).y,
-          getColor(name, -1));
+      Point selectorPosition = getSelectorPosition(name, defaultPoint);
+      colorPickerView.moveSelectorPoint(selectorPosition.x, selectorPosition.y, color);
     }
   }
 
@@ -240,10 +299,175 @@ public class ColorPickerPreferenceManager {
    * @return {@link ColorPickerPreferenceManager}.
    */
   public ColorPickerPreferenceManager clearSavedAllData() {
-    sharedPreferences.edit().clear().apply();
+    synchronized (pendingData) {
+      pendingData.clear();
+      mainHandler.removeCallbacks(writeBehindRunnable);
+    }
+    storage.edit().clear().apply();
+    return colorPickerPreferenceManager;
+  }
+
+  /**
+   * sets a {@link ColorPickerStorage} which keeps the saved data.
+   *
+   * <p>the data held by the write-behind duration is written on the previous storage first. The
+   * data of the previous storage is not copied.
+   *
+   * @param storage {@link ColorPickerStorage}.
+   * @return {@link ColorPickerPreferenceManager}.
+   */
+  public ColorPickerPreferenceManager setStorage(ColorPickerStorage storage) {
+    flush();
+    synchronized (this) {
+      this.storage = storage;
+      this.loaded = false;
+      this.loading = false;
+    }
+    return colorPickerPreferenceManager;
+  }
+
+  /**
+   * gets the {@link ColorPickerStorage} which keeps the saved data.
+   *
+   * @return {@link ColorPickerStorage}.
+   */
+  public ColorPickerStorage getStorage() {
+    return storage;
+  }
+
+  /**
+   * sets a write-behind duration of {@link #saveColorPickerData(ColorPickerView)}.
+   *
+   * <p>saves are held in memory for the duration and written together in one transaction, so
+   * repeated saves of the same preference name are coalesced. The held data is returned by the
+   * getters until it is written, so call {@link #flush()} when the app may be killed before the
+   * duration passes. 0 writes every save immediately, which is the default.
+   *
+   * @param writeBehindDuration duration in milliseconds.
+   * @return {@link ColorPickerPreferenceManager}.
+   */
+  public ColorPickerPreferenceManager setWriteBehindDuration(long writeBehindDuration) {
+    this.writeBehindDuration = writeBehindDuration;
+    if (writeBehindDuration <= 0) flush();
+    return colorPickerPreferenceManager;
+  }
+
+  /**
+   * gets the write-behind duration of {@link #saveColorPickerData(ColorPickerView)}.
+   *
+   * @return duration in milliseconds.
+   */
+  public long getWriteBehindDuration() {
+    return writeBehindDuration;
+  }
+
+  /**
+   * writes all data held by the write-behind duration in one transaction immediately.
+   *
+   * @return {@link ColorPickerPreferenceManager}.
+   */
+  public ColorPickerPreferenceManager flush() {
+    synchronized (pendingData) {
+      mainHandler.removeCallbacks(writeBehindRunnable);
+      if (pendingData.isEmpty()) return colorPickerPreferenceManager;
+      ColorPickerStorage.Editor editor = storage.edit();
+      for (Map.Entry<String, PickerData> entry : pendingData.entrySet()) {
+        entry.getValue().putOn(new Editor(entry.getKey(), editor));
+      }
+      pendingData.clear();
+      editor.apply();
+    }
     return colorPickerPreferenceManager;
   }
 
+  /**
+   * loads the storage on a background thread, so the first read on the main thread doesn't wait
+   * for the disk. It is recommended to call it early, for example on {@code
+   * Application.onCreate()}.
+   *
+   * @return {@link ColorPickerPreferenceManager}.
+   */
+  public synchronized ColorPickerPreferenceManager prefetch() {
+    if (!loaded && !loading) {
+      loading = true;
+      final ColorPickerStorage storage = this.storage;
+      getLoadExecutor()
+          .execute(
+              () -> {
+                // the first read blocks until the storage has been loaded from the disk.
+                storage.getInt("", ColorPickerStorage.FIELD_COLOR, 0);
+                synchronized (ColorPickerPreferenceManager.this) {
+                  if (this.storage == storage) loaded = true;
+                }
+              });
+    }
+    return colorPickerPreferenceManager;
+  }
+
+  /**
+   * gets whether the storage has been loaded, so reading it doesn't wait for the disk.
+   *
+   * @return true if the storage has been loaded.
+   */
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * runs an action which reads the saved data once the storage has been loaded.
+   *
+   * <p>If the storage has been loaded, the action runs immediately. Otherwise the storage starts
+   * loading on a background thread, and the action is posted to the main thread after it.
+   *
+   * @param action an action reading the saved data.
+   */
+  @MainThread
+  public void runWhenLoaded(Runnable action) {
+    if (loaded) {
+      action.run();
+      return;
+    }
+    prefetch();
+    getLoadExecutor().execute(() -> mainHandler.post(action));
+  }
+
+  private synchronized Executor getLoadExecutor() {
+    if (loadExecutor == null) {
+      // a single thread that finishes when it's idle, running the tasks in order.
+      ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              1,
+              1,
+              1,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              runnable -> {
+                Thread thread = new Thread(runnable, "ColorPickerPreference");
+                thread.setDaemon(true);
+                return thread;
+              });
+      executor.allowCoreThreadTimeOut(true);
+      loadExecutor = executor;
+    }
+    return loadExecutor;
+  }
+
+  private PickerData getPendingData(String name) {
+    synchronized (pendingData) {
+      return pendingData.isEmpty() ? null : pendingData.get(name);
+    }
+  }
+
+  /** moves the held data of the name into the editor, so a newer write isn't overwritten. */
+  private void drainPendingData(String name, ColorPickerStorage.Editor editor) {
+    synchronized (pendingData) {
+      if (pendingData.isEmpty()) return;
+      PickerData data = pendingData.remove(name);
+      if (data != null) data.putOn(new Editor(name, editor));
+      if (pendingData.isEmpty()) mainHandler.removeCallbacks(writeBehindRunnable);
+    }
+  }
+
   protected String getColorName(String name) {
     return name + COLOR;
   }
@@ -263,4 +487,107 @@ public class ColorPickerPreferenceManager {
   protected String getBrightnessSliderName(String name) {
     return name + BrightnessSlider;
   }
+
+  /** Editor is a transaction that saves the data of a {@link ColorPickerView} at once. */
+  public class Editor {
+
+    private final String name;
+    private final ColorPickerStorage.Editor editor;
+
+    private Editor(String name, ColorPickerStorage.Editor editor) {
+      this.name = name;
+      this.editor = editor;
+    }
+
+    /**
+     * sets a color.
+     *
+     * @param color preference color.
+     * @return {@link Editor}.
+     */
+    public Editor setColor(int color) {
+      editor.putInt(name, ColorPickerStorage.FIELD_COLOR, color);
+      return this;
+    }
+
+    /**
+     * sets a selector position.
+     *
+     * @param position position of the selector.
+     * @return {@link Editor}.
+     */
+    public Editor setSelectorPosition(Point position) {
+      editor.putInt(name, ColorPickerStorage.FIELD_SELECTOR_X, position.x);
+      editor.putInt(name, ColorPickerStorage.FIELD_SELECTOR_Y, position.y);
+      return this;
+    }
+
+    /**
+     * sets an alpha slider position.
+     *
+     * @param position position of the {@link com.skydoves.colorpickerview.sliders.AlphaSlideBar}.
+     * @return {@link Editor}.
+     */
+    public Editor setAlphaSliderPosition(int position) {
+      editor.putInt(name, ColorPickerStorage.FIELD_ALPHA_SLIDER, position);
+      return this;
+    }
+
+    /**
+     * sets a brightness slider position.
+     *
+     * @param position position of the {@link
+     *     com.skydoves.colorpickerview.sliders.BrightnessSlideBar}.
+     * @return {@link Editor}.
+     */
+    public Editor setBrightnessSliderPosition(int position) {
+      editor.putInt(name, ColorPickerStorage.FIELD_BRIGHTNESS_SLIDER, position);
+      return this;
+    }
+
+    /** writes all values of the transaction asynchronously. */
+    public void apply() {
+      editor.apply();
+    }
+
+    /**
+     * writes all values of the transaction synchronously.
+     *
+     * @return true if the values were written successfully.
+     */
+    public boolean commit() {
+      return editor.commit();
+    }
+  }
+
+  /** PickerData is a copy of the values of a {@link ColorPickerView} taken when it is saved. */
+  private static class PickerData {
+
+    private final int color;
+    private final int selectorX;
+    private final int selectorY;
+    private final boolean hasAlphaSlider;
+    private final int alphaSliderPosition;
+    private final boolean hasBrightnessSlider;
+    private final int brightnessSliderPosition;
+
+    private PickerData(ColorPickerView colorPickerView) {
+      Point selectedPoint = colorPickerView.getSelectedPoint();
+      this.color = colorPickerView.getColor();
+      this.selectorX = selectedPoint.x;
+      this.selectorY = selectedPoint.y;
+      this.hasAlphaSlider = colorPickerView.getAlphaSlideBar() != null;
+      this.alphaSliderPosition =
+          hasAlphaSlider ? colorPickerView.getAlphaSlideBar().getSelectedX() : 0;
+      this.hasBrightnessSlider = colorPickerView.getBrightnessSlider() != null;
+      this.brightnessSliderPosition =
+          hasBrightnessSlider ? colorPickerView.getBrightnessSlider().getSelectedX() : 0;
+    }
+
+    private void putOn(Editor editor) {
+      editor.setColor(color).setSelectorPosition(new Point(selectorX, selectorY));
+      if (hasAlphaSlider) editor.setAlphaSliderPosition(alphaSliderPosition);
+      if (hasBrightnessSlider) editor.setBrightnessSliderPosition(brightnessSliderPosition);
+    }
+  }
 }
@@ -0,0 +1,102 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview.preference;
+
+/**
+ * ColorPickerStorage is a storage of the {@link ColorPickerPreferenceManager}, which keeps the
+ * fields of {@link com.skydoves.colorpickerview.ColorPickerView}s by their preference names.
+ *
+ * <p>The default storage is backed by {@link android.content.SharedPreferences}, and {@link
+ * MappedColorPickerStorage} keeps fixed-size records in a memory-mapped file.
+ */
+public interface ColorPickerStorage {
+
+  /** the field of the selected color. */
+  int FIELD_COLOR = 0;
+
+  /** the field of the selector's x position. */
+  int FIELD_SELECTOR_X = 1;
+
+  /** the field of the selector's y position. */
+  int FIELD_SELECTOR_Y = 2;
+
+  /** the field of the alpha slider's position. */
+  int FIELD_ALPHA_SLIDER = 3;
+
+  /** the field of the brightness slider's position. */
+  int FIELD_BRIGHTNESS_SLIDER = 4;
+
+  /** the number of the fields. */
+  int FIELD_COUNT = 5;
+
+  /**
+   * gets a saved field of a picker.
+   *
+   * @param name preference name.
+   * @param field one of the field constants.
+   * @param defaultValue the value returned when the field is not saved.
+   * @return the saved value.
+   */
+  int getInt(String name, int field, int defaultValue);
+
+  /**
+   * starts a transaction which changes the storage.
+   *
+   * @return {@link Editor}.
+   */
+  Editor edit();
+
+  /** Editor is a transaction of a {@link ColorPickerStorage}. */
+  interface Editor {
+
+    /**
+     * saves a field of a picker.
+     *
+     * @param name preference name.
+     * @param field one of the field constants.
+     * @param value the value.
+     * @return {@link Editor}.
+     */
+    Editor putInt(String name, int field, int value);
+
+    /**
+     * removes a saved field of a picker.
+     *
+     * @param name preference name.
+     * @param field one of the field constants.
+     * @return {@link Editor}.
+     */
+    Editor remove(String name, int field);
+
+    /**
+     * removes all saved fields. it is applied before the other changes of the transaction.
+     *
+     * @return {@link Editor}.
+     */
+    Editor clear();
+
+    /** writes the changes asynchronously. */
+    void apply();
+
+    /**
+     * writes the changes synchronously.
+     *
+     * @return true if the changes were written successfully.
+     */
+    boolean commit();
+  }
+}
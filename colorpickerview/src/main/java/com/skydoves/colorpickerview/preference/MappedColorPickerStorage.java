@@ -0,0 +1,280 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview.preference;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MappedColorPickerStorage is a {@link ColorPickerStorage} which keeps a fixed-size record per
+ * preference name in a memory-mapped file.
+ *
+ * <p>The records are indexed by name when the file is opened, so reading or writing a field only
+ * touches its own record and never rewrites the whole file. {@link Editor#apply()} leaves the
+ * changes to the page cache, and {@link Editor#commit()} forces them to the disk as well. Like
+ * {@code SharedPreferences}, apply never throws: changes which can't be written, because the file
+ * can't be grown or mapped, are dropped. Use commit to know whether they were written.
+ *
+ * <p>Record layout: an int bitmask of the saved fields, an int per field, a short name length and
+ * the UTF-8 bytes of the name. A name which doesn't fit in its record continues in the following
+ * records, so a name can be up to {@link #MAX_NAME_BYTES} long.
+ *
+ * <p>The file grows fourfold whenever it's full, up to a million records. A mapping can't be
+ * released explicitly, so growing maps the file again and the previous mapping is released when
+ * it's garbage collected. A file of n records is mapped at most log4(n) times.
+ */
+public class MappedColorPickerStorage implements ColorPickerStorage, Closeable {
+
+  /** the max length of a preference name in UTF-8 bytes. */
+  public static final int MAX_NAME_BYTES = Short.MAX_VALUE;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int MAGIC = 0x43505653;
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = 16;
+  private static final int HEADER_RECORD_COUNT = 8;
+  private static final int RECORD_SIZE = 128;
+  private static final int RECORD_VALUES = 4;
+  private static final int RECORD_NAME_LENGTH = RECORD_VALUES + FIELD_COUNT * 4;
+  private static final int RECORD_NAME = RECORD_NAME_LENGTH + 2;
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int MAX_CAPACITY = 1 << 20;
+  private static final int GROWTH_FACTOR = 4;
+
+  private final RandomAccessFile randomAccessFile;
+  private final FileChannel channel;
+  private final Map<String, Integer> index = new HashMap<>();
+  private MappedByteBuffer buffer;
+  private int capacity;
+  private int recordCount;
+
+  /**
+   * opens or creates a storage file.
+   *
+   * @param file the storage file.
+   * @throws IOException if the file can't be opened or mapped.
+   */
+  public MappedColorPickerStorage(File file) throws IOException {
+    this.randomAccessFile = new RandomAccessFile(file, "rw");
+    this.channel = randomAccessFile.getChannel();
+    long length = channel.size();
+    if (length >= HEADER_SIZE) {
+      map((int) ((length - HEADER_SIZE) / RECORD_SIZE));
+      int version = buffer.getInt(4);
+      // version 1 files are version 2 files without long names.
+      if (buffer.getInt(0) == MAGIC && (version == 1 || version == VERSION)) {
+        buffer.putInt(4, VERSION);
+        recordCount = Math.min(buffer.getInt(HEADER_RECORD_COUNT), capacity);
+        int record = 0;
+        while (record < recordCount) {
+          int nameLength = readNameLength(record);
+          int next = record + recordsOf(nameLength);
+          if (next > recordCount) break;
+          index.put(readName(record, nameLength), record);
+          record = next;
+        }
+        recordCount = record;
+        return;
+      }
+    }
+    map(INITIAL_CAPACITY);
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(4, VERSION);
+    buffer.putInt(HEADER_RECORD_COUNT, 0);
+  }
+
+  private void map(int capacity) throws IOException {
+    // the capacity is kept if mapping fails, so the next write tries to grow again.
+    this.buffer =
+        channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    this.capacity = capacity;
+  }
+
+  private void ensureCapacity(int records) throws IOException {
+    if (records <= capacity) return;
+    if (records > MAX_CAPACITY) throw new IOException("the color picker storage is full");
+    int newCapacity = Math.max(capacity, INITIAL_CAPACITY);
+    while (newCapacity < records) {
+      newCapacity *= GROWTH_FACTOR;
+    }
+    map(Math.min(newCapacity, MAX_CAPACITY));
+  }
+
+  private static int offsetOf(int record) {
+    return HEADER_SIZE + record * RECORD_SIZE;
+  }
+
+  /** gets the number of records taken by a name of the length, which continues past its record. */
+  private static int recordsOf(int nameLength) {
+    int overflow = RECORD_NAME + nameLength - RECORD_SIZE;
+    return overflow <= 0 ? 1 : 1 + (overflow + RECORD_SIZE - 1) / RECORD_SIZE;
+  }
+
+  private int readNameLength(int record) {
+    return Math.max(buffer.getShort(offsetOf(record) + RECORD_NAME_LENGTH), 0);
+  }
+
+  private String readName(int record, int length) {
+    int offset = offsetOf(record) + RECORD_NAME;
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(offset + i);
+    }
+    return new String(bytes, UTF_8);
+  }
+
+  /** gets the record of the name, appending a new one if create is true. -1 if not exists. */
+  private int recordOf(String name, boolean create) throws IOException {
+    Integer existing = index.get(name);
+    if (existing != null) return existing;
+    if (!create) return -1;
+    byte[] bytes = name.getBytes(UTF_8);
+    int record = recordCount;
+    ensureCapacity(record + recordsOf(bytes.length));
+    int offset = offsetOf(record);
+    buffer.putInt(offset, 0);
+    buffer.putShort(offset + RECORD_NAME_LENGTH, (short) bytes.length);
+    for (int i = 0; i < bytes.length; i++) {
+      buffer.put(offset + RECORD_NAME + i, bytes[i]);
+    }
+    index.put(name, record);
+    recordCount = record + recordsOf(bytes.length);
+    buffer.putInt(HEADER_RECORD_COUNT, recordCount);
+    return record;
+  }
+
+  private static void checkName(String name) {
+    if (name.getBytes(UTF_8).length > MAX_NAME_BYTES) {
+      throw new IllegalArgumentException(
+          "preference name is longer than " + MAX_NAME_BYTES + " bytes");
+    }
+  }
+
+  @Override
+  public synchronized int getInt(String name, int field, int defaultValue) {
+    Integer record = index.get(name);
+    if (record == null) return defaultValue;
+    int offset = offsetOf(record);
+    if ((buffer.getInt(offset) & (1 << field)) == 0) return defaultValue;
+    return buffer.getInt(offset + RECORD_VALUES + field * 4);
+  }
+
+  @Override
+  public ColorPickerStorage.Editor edit() {
+    return new Editor();
+  }
+
+  private synchronized void write(boolean clear, List<Change> changes, boolean force)
+      throws IOException {
+    if (clear) {
+      index.clear();
+      recordCount = 0;
+      buffer.putInt(HEADER_RECORD_COUNT, 0);
+    }
+    for (Change change : changes) {
+      int record = recordOf(change.name, !change.remove);
+      if (record < 0) continue;
+      int offset = offsetOf(record);
+      int fields = buffer.getInt(offset);
+      if (change.remove) {
+        buffer.putInt(offset, fields & ~(1 << change.field));
+      } else {
+        buffer.putInt(offset + RECORD_VALUES + change.field * 4, change.value);
+        buffer.putInt(offset, fields | (1 << change.field));
+      }
+    }
+    if (force) buffer.force();
+  }
+
+  /**
+   * closes the storage file. the storage can't be used after it's closed.
+   *
+   * @throws IOException if the file can't be closed.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    buffer.force();
+    randomAccessFile.close();
+  }
+
+  private static class Change {
+    private final String name;
+    private final int field;
+    private final int value;
+    private final boolean remove;
+
+    private Change(String name, int field, int value, boolean remove) {
+      this.name = name;
+      this.field = field;
+      this.value = value;
+      this.remove = remove;
+    }
+  }
+
+  private class Editor implements ColorPickerStorage.Editor {
+
+    private final List<Change> changes = new ArrayList<>();
+    private boolean clear = false;
+
+    @Override
+    public ColorPickerStorage.Editor putInt(String name, int field, int value) {
+      checkName(name);
+      changes.add(new Change(name, field, value, false));
+      return this;
+    }
+
+    @Override
+    public ColorPickerStorage.Editor remove(String name, int field) {
+      changes.add(new Change(name, field, 0, true));
+      return this;
+    }
+
+    @Override
+    public ColorPickerStorage.Editor clear() {
+      clear = true;
+      return this;
+    }
+
+    @Override
+    public void apply() {
+      try {
+        write(clear, changes, false);
+      } catch (IOException e) {
+        // apply is called while the views are destroyed, so the changes are dropped.
+      }
+    }
+
+    @Override
+    public boolean commit() {
+      try {
+        write(clear, changes, true);
+        return true;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+  }
+}
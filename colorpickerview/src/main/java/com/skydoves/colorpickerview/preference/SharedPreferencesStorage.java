@@ -0,0 +1,91 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview.preference;
+
+import android.content.SharedPreferences;
+
+/**
+ * SharedPreferencesStorage is the default {@link ColorPickerStorage}, which keeps every field as
+ * an int of the {@link SharedPreferences}.
+ */
+class SharedPreferencesStorage implements ColorPickerStorage {
+
+  private static final String[] SUFFIXES = {
+    ColorPickerPreferenceManager.COLOR,
+    ColorPickerPreferenceManager.SelectorX,
+    ColorPickerPreferenceManager.SelectorY,
+    ColorPickerPreferenceManager.AlphaSlider,
+    ColorPickerPreferenceManager.BrightnessSlider
+  };
+
+  private final SharedPreferences sharedPreferences;
+
+  SharedPreferencesStorage(SharedPreferences sharedPreferences) {
+    this.sharedPreferences = sharedPreferences;
+  }
+
+  private static String getKey(String name, int field) {
+    return name + SUFFIXES[field];
+  }
+
+  @Override
+  public int getInt(String name, int field, int defaultValue) {
+    return sharedPreferences.getInt(getKey(name, field), defaultValue);
+  }
+
+  @Override
+  public ColorPickerStorage.Editor edit() {
+    return new Editor(sharedPreferences.edit());
+  }
+
+  private static class Editor implements ColorPickerStorage.Editor {
+
+    private final SharedPreferences.Editor editor;
+
+    private Editor(SharedPreferences.Editor editor) {
+      this.editor = editor;
+    }
+
+    @Override
+    public ColorPickerStorage.Editor putInt(String name, int field, int value) {
+      editor.putInt(getKey(name, field), value);
+      return this;
+    }
+
+    @Override
+    public ColorPickerStorage.Editor remove(String name, int field) {
+      editor.remove(getKey(name, field));
+      return this;
+    }
+
+    @Override
+    public ColorPickerStorage.Editor clear() {
+      editor.clear();
+      return this;
+    }
+
+    @Override
+    public void apply() {
+      editor.apply();
+    }
+
+    @Override
+    public boolean commit() {
+      return editor.commit();
+    }
+  }
+}
@@ -22,10 +22,12 @@ import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Point;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.ViewGroup;
@@ -57,6 +59,14 @@ abstract class AbstractSlider extends FrameLayout {
   protected int color = Color.WHITE;
   protected ImageView selector;
   protected String preferenceName;
+  private boolean instanceStateRestored = false;
+  private boolean touchFramePending = false;
+  private float pendingTouchX;
+  private final Choreographer.FrameCallback touchFrameCallback =
+      frameTimeNanos -> {
+        touchFramePending = false;
+        onTouchReceived(pendingTouchX, MotionEvent.ACTION_MOVE);
+      };
 
   public AbstractSlider(Context context) {
     super(context);
@@ -108,7 +118,8 @@ abstract class AbstractSlider extends FrameLayout {
     this.borderPaint.setStyle(Paint.Style.STROKE);
     this.borderPaint.setStrokeWidth(borderSize);
     this.borderPaint.setColor(borderColor);
-    this.setBackgroundColor(Color.WHITE);
+    // the gradient covers the whole slider, so no background is drawn under it.
+    this.setWillNotDraw(false);
 
     selector = new ImageView(getContext());
     if (selectorDrawable != null) {
@@ -127,9 +138,28 @@ abstract class AbstractSlider extends FrameLayout {
     canvas.drawRect(0, 0, width, height, borderPaint);
   }
 
-  /** called by {@link ColorPickerView} whenever {@link ColorPickerView} is triggered. */
+  @Override
+  protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+    super.onSizeChanged(width, height, oldWidth, oldHeight);
+    if (width > 0 && height > 0 && colorPaint.getShader() != null) {
+      updatePaint(colorPaint);
+    }
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    cancelPendingTouchFrame();
+  }
+
+  /**
+   * called by {@link ColorPickerView} whenever {@link ColorPickerView} is triggered. the slider is
+   * re-rendered only when the color has changed.
+   */
   public void notifyColor() {
-    color = colorPickerView.getPureColor();
+    int pureColor = colorPickerView.getPureColor();
+    if (pureColor == color && colorPaint.getShader() != null) return;
+    color = pureColor;
     updatePaint(colorPaint);
     invalidate();
   }
@@ -150,7 +180,20 @@ abstract class AbstractSlider extends FrameLayout {
           if (event.getX() > getWidth() || event.getX() < 0) {
             return false;
           } else {
-            onTouchReceived(event);
+            if (colorPickerView.getFlagView() != null) {
+              colorPickerView.getFlagView().receiveOnTouchEvent(event);
+            }
+            if (colorPickerView.isTouchCoalescingEnabled()
+                && event.getActionMasked() == MotionEvent.ACTION_MOVE) {
+              pendingTouchX = event.getX();
+              if (!touchFramePending) {
+                touchFramePending = true;
+                Choreographer.getInstance().postFrameCallback(touchFrameCallback);
+              }
+              return true;
+            }
+            cancelPendingTouchFrame();
+            onTouchReceived(event.getX(), event.getAction());
             return true;
           }
         default:
@@ -162,27 +205,22 @@ abstract class AbstractSlider extends FrameLayout {
     }
   }
 
-  private void onTouchReceived(MotionEvent event) {
-    float eventX = event.getX();
+  private void onTouchReceived(float x, int action) {
+    float eventX = x;
     float left = selector.getWidth() / 2f;
     float right = getWidth() - left;
     if (eventX > right) eventX = right;
     selectorPosition = (eventX - left) / (right - left);
     if (selectorPosition < 0) selectorPosition = 0;
     if (selectorPosition > 1.0f) selectorPosition = 1.0f;
-    Point snapPoint = new Point((int) event.getX(), (int) event.getY());
-    selectedX = (int) getBoundaryX(snapPoint.x);
+    selectedX = (int) getBoundaryX((int) x);
     selector.setX(selectedX);
     if (colorPickerView.getActionMode() == ActionMode.LAST) {
-      if (event.getAction() == MotionEvent.ACTION_UP) {
+      if (action == MotionEvent.ACTION_UP) {
         colorPickerView.fireColorListener(assembleColor(), true);
       }
     } else {
-      colorPickerView.fireColorListener(assembleColor(), true);
-    }
-
-    if (colorPickerView.getFlagView() != null) {
-      colorPickerView.getFlagView().receiveOnTouchEvent(event);
+      colorPickerView.dispatchColorListener(assembleColor());
     }
 
     int maxPos = getWidth() - selector.getWidth();
@@ -190,6 +228,14 @@ abstract class AbstractSlider extends FrameLayout {
     if (selector.getX() <= 0) selector.setX(0);
   }
 
+  /** drops a coalesced move which has not been processed yet. */
+  private void cancelPendingTouchFrame() {
+    if (touchFramePending) {
+      touchFramePending = false;
+      Choreographer.getInstance().removeFrameCallback(touchFrameCallback);
+    }
+  }
+
   public void updateSelectorX(int x) {
     float left = selector.getWidth() / 2f;
     float right = getWidth() - left;
@@ -216,6 +262,34 @@ abstract class AbstractSlider extends FrameLayout {
     selector.setX(selectedX);
   }
 
+  /** places the selector on the selector position without notifying the listener. */
+  private void placeSelector() {
+    float left = selector.getWidth() / 2f;
+    float right = getWidth() - left;
+    selectedX = (int) getBoundaryX(left + selectorPosition * (right - left));
+    selector.setX(selectedX);
+  }
+
+  @Override
+  protected Parcelable onSaveInstanceState() {
+    SavedState state = new SavedState(super.onSaveInstanceState());
+    state.selectorPosition = selectorPosition;
+    return state;
+  }
+
+  @Override
+  protected void onRestoreInstanceState(Parcelable state) {
+    if (!(state instanceof SavedState)) {
+      super.onRestoreInstanceState(state);
+      return;
+    }
+    SavedState savedState = (SavedState) state;
+    super.onRestoreInstanceState(savedState.getSuperState());
+    selectorPosition = savedState.selectorPosition;
+    instanceStateRestored = true;
+    if (getWidth() > 0) placeSelector();
+  }
+
   private float getBoundaryX(float x) {
     int maxPos = getWidth() - selector.getWidth() / 2;
     if (x >= maxPos) return maxPos;
@@ -238,7 +312,12 @@ abstract class AbstractSlider extends FrameLayout {
               @Override
               public void onGlobalLayout() {
                 getViewTreeObserver().removeOnGlobalLayoutListener(this);
-                onInflateFinished();
+                if (instanceStateRestored) {
+                  // the restored position is placed instead of the preference, without notifying.
+                  selector.post(() -> placeSelector());
+                } else {
+                  onInflateFinished();
+                }
               }
             });
   }
@@ -366,4 +445,38 @@ abstract class AbstractSlider extends FrameLayout {
   public void setPreferenceName(String preferenceName) {
     this.preferenceName = preferenceName;
   }
+
+  /** SavedState is the instance state of the sliders. */
+  static class SavedState extends BaseSavedState {
+
+    float selectorPosition;
+
+    SavedState(Parcelable superState) {
+      super(superState);
+    }
+
+    private SavedState(Parcel source) {
+      super(source);
+      selectorPosition = source.readFloat();
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+      super.writeToParcel(out, flags);
+      out.writeFloat(selectorPosition);
+    }
+
+    public static final Parcelable.Creator<SavedState> CREATOR =
+        new Parcelable.Creator<SavedState>() {
+          @Override
+          public SavedState createFromParcel(Parcel source) {
+            return new SavedState(source);
+          }
+
+          @Override
+          public SavedState[] newArray(int size) {
+            return new SavedState[size];
+          }
+        };
+  }
 }
@@ -18,12 +18,9 @@ package com.skydoves.colorpickerview.sliders;
 
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.LinearGradient;
 import android.graphics.Paint;
-import android.graphics.Shader;
 import android.util.AttributeSet;
 import androidx.annotation.ColorInt;
 import androidx.appcompat.content.res.AppCompatResources;
@@ -36,7 +33,6 @@ import com.skydoves.colorpickerview.preference.ColorPickerPreferenceManager;
 @SuppressWarnings("unused")
 public class AlphaSlideBar extends AbstractSlider {
 
-  private Bitmap backgroundBitmap;
   private final AlphaTileDrawable drawable = new AlphaTileDrawable();
 
   public AlphaSlideBar(Context context) {
@@ -79,34 +75,30 @@ public class AlphaSlideBar extends AbstractSlider {
   @Override
   protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
     super.onSizeChanged(width, height, oldWidth, oldHeight);
-    if (width > 0 && height > 0) {
-      backgroundBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-      Canvas backgroundCanvas = new Canvas(backgroundBitmap);
-      drawable.setBounds(0, 0, backgroundCanvas.getWidth(), backgroundCanvas.getHeight());
-      drawable.draw(backgroundCanvas);
-    }
+    drawable.setBounds(0, 0, width, height);
   }
 
   @Override
   public void updatePaint(Paint colorPaint) {
-    float[] hsv = new float[3];
-    Color.colorToHSV(getColor(), hsv);
-    int startColor = Color.HSVToColor(0, hsv);
-    int endColor = Color.HSVToColor(255, hsv);
-    Shader shader =
-        new LinearGradient(
-            0, 0, getWidth(), getMeasuredHeight(), startColor, endColor, Shader.TileMode.CLAMP);
-    colorPaint.setShader(shader);
+    int startColor = getColor() & 0x00FFFFFF;
+    int endColor = getColor() | 0xFF000000;
+    colorPaint.setShader(
+        SliderGradientCache.obtain(getWidth(), getMeasuredHeight(), startColor, endColor));
   }
 
   @Override
   public void onInflateFinished() {
     int defaultPosition = getWidth() - selector.getWidth();
     if (getPreferenceName() != null) {
-      updateSelectorX(
-          ColorPickerPreferenceManager.getInstance(getContext())
-                  .getAlphaSliderPosition(getPreferenceName(), defaultPosition)
-              + getSelectorSize() / 2);
+      final ColorPickerPreferenceManager manager =
+          ColorPickerPreferenceManager.getInstance(getContext());
+      manager.runWhenLoaded(
+          () -> {
+            if (getPreferenceName() == null) return;
+            updateSelectorX(
+                manager.getAlphaSliderPosition(getPreferenceName(), defaultPosition)
+                    + getSelectorSize() / 2);
+          });
     } else {
       selector.setX(defaultPosition);
     }
@@ -114,7 +106,7 @@ public class AlphaSlideBar extends AbstractSlider {
 
   @Override
   protected void onDraw(Canvas canvas) {
-    canvas.drawBitmap(backgroundBitmap, 0, 0, null);
+    drawable.draw(canvas);
     super.onDraw(canvas);
   }
 
@@ -16,13 +16,10 @@
 
 package com.skydoves.colorpickerview.sliders;
 
-import android.graphics.Bitmap;
-import android.graphics.BitmapShader;
 import android.graphics.Canvas;
 import android.graphics.ColorFilter;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
-import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
@@ -56,33 +53,12 @@ public class AlphaTileDrawable extends Drawable {
   }
 
   private void drawTiles() {
-    Bitmap bitmap = Bitmap.createBitmap(tileSize * 2, tileSize * 2, Bitmap.Config.ARGB_8888);
-    Canvas canvas = new Canvas(bitmap);
-    Rect rect = new Rect(0, 0, tileSize, tileSize);
-
-    Paint bitmapPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-    bitmapPaint.setStyle(Paint.Style.FILL);
-
-    bitmapPaint.setColor(tileOddColor);
-    drawTile(canvas, rect, bitmapPaint, 0, 0);
-    drawTile(canvas, rect, bitmapPaint, tileSize, tileSize);
-
-    bitmapPaint.setColor(tileEvenColor);
-    drawTile(canvas, rect, bitmapPaint, -tileSize, 0);
-    drawTile(canvas, rect, bitmapPaint, tileSize, -tileSize);
-
-    paint.setShader(
-        new BitmapShader(bitmap, BitmapShader.TileMode.REPEAT, BitmapShader.TileMode.REPEAT));
-  }
-
-  private void drawTile(Canvas canvas, Rect rect, Paint bitmapPaint, int dx, int dy) {
-    rect.offset(dx, dy);
-    canvas.drawRect(rect, bitmapPaint);
+    paint.setShader(AlphaTileShaderCache.obtain(tileSize, tileOddColor, tileEvenColor));
   }
 
   @Override
   public void draw(@NonNull Canvas canvas) {
-    canvas.drawPaint(paint);
+    canvas.drawRect(getBounds(), paint);
   }
 
   @Override
@@ -0,0 +1,101 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview.sliders;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Shader;
+import androidx.annotation.ColorInt;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * AlphaTileShaderCache is a process-wide cache of checkerboard shaders keyed by the tile size and
+ * colors, so every {@link AlphaTileDrawable} of the same tiles shares one immutable tile bitmap.
+ *
+ * <p>The tile bitmap holds a single 2x2 block of tiles and is repeated by the shader, so drawing
+ * a checkerboard costs no bitmap memory of the size of the view.
+ */
+final class AlphaTileShaderCache {
+
+  private static final int MAX_ENTRIES = 16;
+
+  private static final Map<Key, BitmapShader> shaders =
+      new LinkedHashMap<Key, BitmapShader>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BitmapShader> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  private AlphaTileShaderCache() {}
+
+  /** gets the shared checkerboard shader of the tile size and colors, creating it if needed. */
+  static synchronized BitmapShader obtain(
+      int tileSize, @ColorInt int tileOddColor, @ColorInt int tileEvenColor) {
+    Key key = new Key(tileSize, tileOddColor, tileEvenColor);
+    BitmapShader shader = shaders.get(key);
+    if (shader == null) {
+      Bitmap bitmap = createTileBitmap(tileSize, tileOddColor, tileEvenColor);
+      shader = new BitmapShader(bitmap, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT);
+      shaders.put(key, shader);
+    }
+    return shader;
+  }
+
+  /** creates an immutable bitmap of the odd tiles on the diagonal and the even tiles beside. */
+  private static Bitmap createTileBitmap(
+      int tileSize, @ColorInt int tileOddColor, @ColorInt int tileEvenColor) {
+    int size = tileSize * 2;
+    int[] pixels = new int[size * size];
+    for (int y = 0; y < size; y++) {
+      boolean top = y < tileSize;
+      int offset = y * size;
+      for (int x = 0; x < size; x++) {
+        pixels[offset + x] = (x < tileSize) == top ? tileOddColor : tileEvenColor;
+      }
+    }
+    return Bitmap.createBitmap(pixels, size, size, Bitmap.Config.ARGB_8888);
+  }
+
+  private static final class Key {
+    private final int tileSize;
+    private final int tileOddColor;
+    private final int tileEvenColor;
+
+    Key(int tileSize, int tileOddColor, int tileEvenColor) {
+      this.tileSize = tileSize;
+      this.tileOddColor = tileOddColor;
+      this.tileEvenColor = tileEvenColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key key = (Key) o;
+      return tileSize == key.tileSize
+          && tileOddColor == key.tileOddColor
+          && tileEvenColor == key.tileEvenColor;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * tileSize + tileOddColor) + tileEvenColor;
+    }
+  }
+}
@@ -19,9 +19,7 @@ package com.skydoves.colorpickerview.sliders;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Color;
-import android.graphics.LinearGradient;
 import android.graphics.Paint;
-import android.graphics.Shader;
 import android.util.AttributeSet;
 import androidx.annotation.ColorInt;
 import androidx.appcompat.content.res.AppCompatResources;
@@ -84,10 +82,8 @@ public class BrightnessSlideBar extends AbstractSlider {
     int startColor = Color.HSVToColor(hsv);
     hsv[2] = 1;
     int endColor = Color.HSVToColor(hsv);
-    Shader shader =
-        new LinearGradient(
-            0, 0, getWidth(), getHeight(), startColor, endColor, Shader.TileMode.CLAMP);
-    colorPaint.setShader(shader);
+    colorPaint.setShader(
+        SliderGradientCache.obtain(getWidth(), getHeight(), startColor, endColor));
   }
 
   @Override
@@ -97,10 +93,15 @@ public class BrightnessSlideBar extends AbstractSlider {
           int defaultPosition = getWidth() - selector.getWidth();
 
           if (getPreferenceName() != null) {
-            updateSelectorX(
-                ColorPickerPreferenceManager.getInstance(getContext())
-                        .getBrightnessSliderPosition(getPreferenceName(), defaultPosition)
-                    + getSelectorSize() / 2);
+            final ColorPickerPreferenceManager manager =
+                ColorPickerPreferenceManager.getInstance(getContext());
+            manager.runWhenLoaded(
+                () -> {
+                  if (getPreferenceName() == null) return;
+                  updateSelectorX(
+                      manager.getBrightnessSliderPosition(getPreferenceName(), defaultPosition)
+                          + getSelectorSize() / 2);
+                });
           } else {
             selector.setX(defaultPosition);
           }
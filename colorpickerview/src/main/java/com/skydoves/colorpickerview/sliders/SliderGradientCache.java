@@ -0,0 +1,86 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview.sliders;
+
+import android.graphics.LinearGradient;
+import android.graphics.Shader;
+import androidx.annotation.ColorInt;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SliderGradientCache is a process-wide cache of the horizontal gradient shaders of sliders keyed
+ * by the slider size and the endpoint colors, so a slider going back to a color it has already
+ * painted, or sliders of the same size showing the same color, reuse one shader.
+ */
+final class SliderGradientCache {
+
+  private static final int MAX_ENTRIES = 32;
+
+  private static final Map<Key, LinearGradient> gradients =
+      new LinkedHashMap<Key, LinearGradient>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, LinearGradient> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  private SliderGradientCache() {}
+
+  /** gets the shared gradient from the start color to the end color over the slider size. */
+  static synchronized LinearGradient obtain(
+      int width, int height, @ColorInt int startColor, @ColorInt int endColor) {
+    Key key = new Key(width, height, startColor, endColor);
+    LinearGradient gradient = gradients.get(key);
+    if (gradient == null) {
+      gradient =
+          new LinearGradient(0, 0, width, height, startColor, endColor, Shader.TileMode.CLAMP);
+      gradients.put(key, gradient);
+    }
+    return gradient;
+  }
+
+  private static final class Key {
+    private final int width;
+    private final int height;
+    private final int startColor;
+    private final int endColor;
+
+    Key(int width, int height, int startColor, int endColor) {
+      this.width = width;
+      this.height = height;
+      this.startColor = startColor;
+      this.endColor = endColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key key = (Key) o;
+      return width == key.width
+          && height == key.height
+          && startColor == key.startColor
+          && endColor == key.endColor;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * (31 * width + height) + startColor) + endColor;
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Color;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class ColorEnvelopeTest {
+
+  private static final int[] EDGE_COLORS = {
+    0x00000000, 0xFFFFFFFF, 0x80000000, 0x7FFFFFFF, 0xFF000000, 0x00FFFFFF, 0x0F0F0F0F, 0xF0F0F0F0,
+    0x12345678, 0x9ABCDEF0, Color.RED, Color.GREEN, Color.BLUE
+  };
+
+  @Test
+  public void hexCodeMatchesStringFormat() {
+    for (int color : EDGE_COLORS) {
+      assertEquals(formatHexCode(color), new ColorEnvelope(color).getHexCode());
+    }
+    Random random = new Random(9);
+    for (int i = 0; i < 1_000_000; i++) {
+      int color = random.nextInt();
+      assertEquals(formatHexCode(color), ColorUtils.getHexCode(color));
+    }
+  }
+
+  @Test
+  public void argbMatchesChannels() {
+    Random random = new Random(11);
+    for (int i = 0; i < 10_000; i++) {
+      int color = random.nextInt();
+      assertArrayEquals(
+          new int[] {Color.alpha(color), Color.red(color), Color.green(color), Color.blue(color)},
+          new ColorEnvelope(color).getArgb());
+    }
+  }
+
+  @Test
+  public void hsvMatchesColorToHsv() {
+    float[] expected = new float[3];
+    Random random = new Random(13);
+    for (int i = 0; i < 10_000; i++) {
+      int color = random.nextInt();
+      Color.colorToHSV(color, expected);
+      assertArrayEquals(expected, new ColorEnvelope(color).getHsv(), 0f);
+    }
+    assertArrayEquals(new float[] {0f, 1f, 1f}, new ColorEnvelope(Color.RED).getHsv(), 1e-6f);
+    assertArrayEquals(new float[] {120f, 1f, 1f}, new ColorEnvelope(Color.GREEN).getHsv(), 1e-6f);
+    assertArrayEquals(new float[] {240f, 1f, 1f}, new ColorEnvelope(Color.BLUE).getHsv(), 1e-6f);
+  }
+
+  @Test
+  public void hslOfKnownColors() {
+    assertArrayEquals(new float[] {0f, 1f, 0.5f}, new ColorEnvelope(Color.RED).getHsl(), 1e-6f);
+    assertArrayEquals(new float[] {0f, 0f, 1f}, new ColorEnvelope(Color.WHITE).getHsl(), 1e-6f);
+    assertArrayEquals(new float[] {0f, 0f, 0f}, new ColorEnvelope(Color.BLACK).getHsl(), 1e-6f);
+    assertArrayEquals(
+        new float[] {180f, 1f, 128 / 510f}, new ColorEnvelope(0xFF008080).getHsl(), 1e-6f);
+    assertArrayEquals(
+        new float[] {300f, 1f, 0.75f}, new ColorEnvelope(0xFFFF80FF).getHsl(), 0.002f);
+  }
+
+  @Test
+  public void hslConvertsBackToTheColor() {
+    Random random = new Random(17);
+    for (int i = 0; i < 100_000; i++) {
+      int color = random.nextInt() | 0xFF000000;
+      float[] hsl = new ColorEnvelope(color).getHsl();
+      assertTrue(hsl[0] >= 0f && hsl[0] < 360f);
+      int converted = hslToColor(hsl);
+      assertTrue(
+          Integer.toHexString(color) + " became " + Integer.toHexString(converted),
+          Math.abs(Color.red(color) - Color.red(converted)) <= 1
+              && Math.abs(Color.green(color) - Color.green(converted)) <= 1
+              && Math.abs(Color.blue(color) - Color.blue(converted)) <= 1);
+    }
+  }
+
+  @Test
+  public void formsAreMemoized() {
+    ColorEnvelope envelope = new ColorEnvelope(Color.RED);
+    String hexCode = envelope.getHexCode();
+    float[] hsv = envelope.getHsv();
+    int[] argb = envelope.getArgb();
+    assertSame(hexCode, envelope.getHexCode());
+    assertSame(hsv, envelope.getHsv());
+    assertSame(argb, envelope.getArgb());
+    assertEquals("FFFF0000", hexCode);
+  }
+
+  /** the hex code as it was formatted before the table-based encoder. */
+  private static String formatHexCode(int color) {
+    return String.format(
+        Locale.US,
+        "%02X%02X%02X%02X",
+        Color.alpha(color),
+        Color.red(color),
+        Color.green(color),
+        Color.blue(color));
+  }
+
+  private static int hslToColor(float[] hsl) {
+    float chroma = (1f - Math.abs(2f * hsl[2] - 1f)) * hsl[1];
+    float hue = hsl[0] / 60f;
+    float x = chroma * (1f - Math.abs(hue % 2f - 1f));
+    float r;
+    float g;
+    float b;
+    if (hue < 1) {
+      r = chroma;
+      g = x;
+      b = 0;
+    } else if (hue < 2) {
+      r = x;
+      g = chroma;
+      b = 0;
+    } else if (hue < 3) {
+      r = 0;
+      g = chroma;
+      b = x;
+    } else if (hue < 4) {
+      r = 0;
+      g = x;
+      b = chroma;
+    } else if (hue < 5) {
+      r = x;
+      g = 0;
+      b = chroma;
+    } else {
+      r = chroma;
+      g = 0;
+      b = x;
+    }
+    float m = hsl[2] - chroma / 2f;
+    return Color.rgb(
+        Math.round((r + m) * 255f), Math.round((g + m) * 255f), Math.round((b + m) * 255f));
+  }
+}
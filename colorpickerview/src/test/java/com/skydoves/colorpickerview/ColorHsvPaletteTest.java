@@ -0,0 +1,153 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.MotionEvent;
+import android.widget.ImageView;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Counts the shaders constructed by the {@link ColorHsvPalette} while it's drawn many times. */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ColorHsvPaletteTest {
+
+  private static final int SIZE = 400;
+  private static final int DRAWS = 100;
+
+  private final Resources resources = RuntimeEnvironment.getApplication().getResources();
+  private final Canvas canvas =
+      new Canvas(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+
+  @Test
+  public void shadersAreBuiltOncePerBounds() {
+    ColorHsvPalette palette = new ColorHsvPalette(resources);
+    int before = ColorHsvPalette.getShaderConstructionCount();
+
+    palette.setBounds(0, 0, SIZE, SIZE);
+    drawRepeatedly(palette);
+    // a sweep and a radial gradient.
+    assertEquals(2, ColorHsvPalette.getShaderConstructionCount() - before);
+
+    palette.setBounds(0, 0, SIZE / 2, SIZE / 2);
+    drawRepeatedly(palette);
+    assertEquals(4, ColorHsvPalette.getShaderConstructionCount() - before);
+  }
+
+  @Test
+  public void renderCacheBuildsShadersOnce() {
+    Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+    ColorHsvPalette palette = new ColorHsvPalette(resources, bitmap);
+    int before = ColorHsvPalette.getShaderConstructionCount();
+
+    palette.setBounds(0, 0, SIZE, SIZE);
+    drawRepeatedly(palette);
+    assertEquals(2, ColorHsvPalette.getShaderConstructionCount() - before);
+  }
+
+  @Test
+  public void sharedWheelBuildsNoShadersWhenDrawn() {
+    Bitmap wheel = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+    ColorHsvPalette.renderWheel(wheel);
+    ColorHsvPalette palette = new ColorHsvPalette(resources, wheel, true);
+    int before = ColorHsvPalette.getShaderConstructionCount();
+
+    palette.setBounds(0, 0, SIZE, SIZE);
+    drawRepeatedly(palette);
+    assertEquals(0, ColorHsvPalette.getShaderConstructionCount() - before);
+  }
+
+  @Test
+  public void missIsRenderedOffTheMainThread() throws InterruptedException {
+    HsvPaletteCache cache = HsvPaletteCache.getInstance();
+    // a size no other test uses, so it isn't in the cache.
+    Bitmap wheel = cache.acquire(SIZE + 1, SIZE + 3);
+    ColorHsvPalette palette = new ColorHsvPalette(resources, wheel, true);
+    palette.setBounds(0, 0, SIZE + 1, SIZE + 3);
+    // the wheel is drawn with the shaders until the shared bitmap is rendered.
+    assertFalse(cache.isRendered(wheel));
+    palette.draw(canvas);
+
+    PickerTestUtils.awaitBackgroundTasks();
+    assertTrue(cache.isRendered(wheel));
+    assertNotEquals(Color.TRANSPARENT, wheel.getPixel(SIZE / 2, SIZE / 2));
+    int before = ColorHsvPalette.getShaderConstructionCount();
+    drawRepeatedly(palette);
+    assertEquals(0, ColorHsvPalette.getShaderConstructionCount() - before);
+    cache.release(wheel);
+  }
+
+  @Test
+  public void resizedPickerSharesAWheelOfTheNewSize() throws InterruptedException {
+    ColorPickerView colorPickerView = new ColorPickerView(RuntimeEnvironment.getApplication());
+    PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+    Bitmap wheel = wheelOf(colorPickerView);
+    assertEquals(SIZE, wheel.getWidth());
+
+    PickerTestUtils.layOut(colorPickerView, SIZE / 2, SIZE / 4);
+    Bitmap resized = wheelOf(colorPickerView);
+    assertNotSame(wheel, resized);
+    assertEquals(SIZE / 2, resized.getWidth());
+    assertEquals(SIZE / 4, resized.getHeight());
+    PickerTestUtils.awaitBackgroundTasks();
+    assertTrue(HsvPaletteCache.getInstance().isRendered(resized));
+  }
+
+  @Test
+  public void draggingOnThePickerBuildsNoShaders() throws InterruptedException {
+    ColorPickerView colorPickerView = new ColorPickerView(RuntimeEnvironment.getApplication());
+    PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+    PickerTestUtils.awaitBackgroundTasks();
+    colorPickerView.draw(canvas);
+    int before = ColorHsvPalette.getShaderConstructionCount();
+
+    MotionEvent[] events = PickerTestUtils.circularDrag(SIZE / 2f, SIZE / 2f, SIZE / 3f, DRAWS);
+    for (MotionEvent event : events) {
+      colorPickerView.onTouchEvent(event);
+      ShadowLooper.idleMainLooper();
+      colorPickerView.draw(canvas);
+    }
+    PickerTestUtils.recycle(events);
+    assertEquals(0, ColorHsvPalette.getShaderConstructionCount() - before);
+  }
+
+  /** the palette is the first child of the picker out of the single-canvas mode. */
+  private static Bitmap wheelOf(ColorPickerView colorPickerView) {
+    return ((ColorHsvPalette) ((ImageView) colorPickerView.getChildAt(0)).getDrawable())
+        .getBitmap();
+  }
+
+  private void drawRepeatedly(ColorHsvPalette palette) {
+    for (int i = 0; i < DRAWS; i++) {
+      palette.draw(canvas);
+    }
+  }
+}
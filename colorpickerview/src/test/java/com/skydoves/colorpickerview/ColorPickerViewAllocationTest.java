@@ -0,0 +1,150 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.MotionEvent;
+import com.skydoves.colorpickerview.listeners.ColorEnvelopeListener;
+import com.skydoves.colorpickerview.listeners.ColorListener;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ColorPickerViewAllocationTest {
+
+  private static final int SIZE = 400;
+  private static final int EVENTS = 2000;
+
+  /** a steady drag allocates less than one of the smallest objects per event. */
+  private static final long MAX_BYTES_PER_EVENT = 16;
+
+  private int deliveredColors;
+
+  @Test
+  public void dragOnHsvPaletteAllocatesNothing() {
+    ColorPickerView colorPickerView = createPicker();
+    assertSteadyDragAllocatesNothing(colorPickerView);
+  }
+
+  @Test
+  public void dragOnImagePaletteAllocatesNothing() {
+    ColorPickerView colorPickerView = createPicker();
+    Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+    for (int y = 0; y < SIZE; y++) {
+      for (int x = 0; x < SIZE; x++) {
+        bitmap.setPixel(x, y, Color.rgb(x * 255 / SIZE, y * 255 / SIZE, 128));
+      }
+    }
+    colorPickerView.setPaletteDrawable(
+        new BitmapDrawable(RuntimeEnvironment.getApplication().getResources(), bitmap));
+    PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+    assertSteadyDragAllocatesNothing(colorPickerView);
+  }
+
+  @Test
+  public void envelopeIsReusedWhileTheColorIsUnchanged() {
+    ColorPickerView colorPickerView = createPicker();
+    List<ColorEnvelope> envelopes = new ArrayList<>();
+    colorPickerView.setColorListener(
+        (ColorEnvelopeListener) (envelope, fromUser) -> envelopes.add(envelope));
+    colorPickerView.fireColorListener(Color.RED, false);
+    colorPickerView.fireColorListener(Color.RED, false);
+    assertSame(envelopes.get(0), envelopes.get(1));
+    assertSame(envelopes.get(0), colorPickerView.getColorEnvelope());
+
+    // an envelope given before keeps its color.
+    colorPickerView.fireColorListener(Color.BLUE, false);
+    assertNotSame(envelopes.get(0), envelopes.get(2));
+    assertEquals(Color.RED, envelopes.get(0).getColor());
+    assertEquals("FFFF0000", envelopes.get(0).getHexCode());
+    assertEquals(Color.BLUE, envelopes.get(2).getColor());
+  }
+
+  private ColorPickerView createPicker() {
+    ColorPickerView colorPickerView = new ColorPickerView(RuntimeEnvironment.getApplication());
+    // a color listener doesn't need envelopes, so a drag allocates none.
+    colorPickerView.setColorListener(
+        (ColorListener)
+            (color, fromUser) -> {
+              if (color != 0) deliveredColors++;
+            });
+    return PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+  }
+
+  private void assertSteadyDragAllocatesNothing(ColorPickerView colorPickerView) {
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+
+    MotionEvent[] events = PickerTestUtils.circularDrag(SIZE / 2f, SIZE / 2f, SIZE / 3f, EVENTS);
+    Runnable drag =
+        () -> {
+          for (MotionEvent event : events) {
+            colorPickerView.onTouchEvent(event);
+            // the listener is invoked by a message to the main looper.
+            ShadowLooper.idleMainLooper();
+          }
+        };
+    // posting and running the same number of messages, which the looper of the test pays for.
+    Handler handler = new Handler(Looper.getMainLooper());
+    Runnable message = () -> {};
+    Runnable messages =
+        () -> {
+          for (int i = 0; i < EVENTS; i++) {
+            handler.post(message);
+            ShadowLooper.idleMainLooper();
+          }
+        };
+
+    // warms up the caches, indexes and the JIT with the same work.
+    drag.run();
+    messages.run();
+    deliveredColors = 0;
+    long allocated = allocatedBytes(threadMXBean, drag) - allocatedBytes(threadMXBean, messages);
+    PickerTestUtils.recycle(events);
+
+    assertEquals(EVENTS, deliveredColors);
+    assertTrue(
+        "allocated " + allocated + " bytes for " + EVENTS + " events",
+        allocated < MAX_BYTES_PER_EVENT * EVENTS);
+  }
+
+  private static long allocatedBytes(
+      com.sun.management.ThreadMXBean threadMXBean, Runnable runnable) {
+    long threadId = Thread.currentThread().getId();
+    long before = threadMXBean.getThreadAllocatedBytes(threadId);
+    runnable.run();
+    return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+  }
+}
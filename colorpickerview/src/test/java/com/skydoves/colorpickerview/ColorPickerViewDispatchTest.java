@@ -0,0 +1,93 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+
+import android.view.MotionEvent;
+import com.skydoves.colorpickerview.listeners.ColorListener;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Checks that the colors waiting to be dispatched are dropped when the picker goes away. */
+@RunWith(RobolectricTestRunner.class)
+public class ColorPickerViewDispatchTest {
+
+  private static final int SIZE = 400;
+  private static final long DURATION_MILLIS = 100;
+
+  private int deliveredColors;
+
+  @Test
+  public void detachDropsTheTrailingThrottledColor() {
+    ColorPickerView colorPickerView = createPicker(ActionMode.THROTTLE);
+    colorPickerView.setThrottleDuration(DURATION_MILLIS);
+    drag(colorPickerView);
+    // the first color is delivered at once, and the latest one waits for the window to close.
+    assertEquals(1, deliveredColors);
+
+    colorPickerView.onDetachedFromWindow();
+    ShadowLooper.idleMainLooper(DURATION_MILLIS * 2, TimeUnit.MILLISECONDS);
+    assertEquals(1, deliveredColors);
+  }
+
+  @Test
+  public void destroyDropsTheTrailingFrameColor() {
+    ColorPickerView colorPickerView = createPicker(ActionMode.FRAME);
+    drag(colorPickerView);
+    assertEquals(1, deliveredColors);
+
+    colorPickerView.onDestroy();
+    ShadowLooper.idleMainLooper(DURATION_MILLIS, TimeUnit.MILLISECONDS);
+    assertEquals(1, deliveredColors);
+  }
+
+  @Test
+  public void destroyDropsTheDebouncedColor() {
+    ColorPickerView colorPickerView = createPicker(ActionMode.ALWAYS);
+    colorPickerView.setDebounceDuration(DURATION_MILLIS);
+    drag(colorPickerView);
+    assertEquals(0, deliveredColors);
+
+    colorPickerView.onDestroy();
+    ShadowLooper.idleMainLooper(DURATION_MILLIS * 2, TimeUnit.MILLISECONDS);
+    assertEquals(0, deliveredColors);
+  }
+
+  private ColorPickerView createPicker(ActionMode actionMode) {
+    ColorPickerView colorPickerView = new ColorPickerView(RuntimeEnvironment.getApplication());
+    colorPickerView.setActionMode(actionMode);
+    PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+    ShadowLooper.idleMainLooper();
+    colorPickerView.setColorListener((ColorListener) (color, fromUser) -> deliveredColors++);
+    return colorPickerView;
+  }
+
+  /** moves the selector a few times without letting the main looper run. */
+  private static void drag(ColorPickerView colorPickerView) {
+    for (int i = 0; i < 4; i++) {
+      int action = i == 0 ? MotionEvent.ACTION_DOWN : MotionEvent.ACTION_MOVE;
+      MotionEvent event = MotionEvent.obtain(0, i, action, 150 + i * 10, 150, 0);
+      colorPickerView.onTouchEvent(event);
+      event.recycle();
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.MotionEvent;
+import com.skydoves.colorpickerview.flag.BubbleFlag;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Drags the selector of a picker with a flag, drawing a frame after every move, and counts the
+ * invalidations of the picker and their dirty areas.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ColorPickerViewInvalidationTest {
+
+  private static final int SIZE = 400;
+  private static final int MOVES = 60;
+  private static final long FRAME_MILLIS = 16;
+
+  private final Context context = RuntimeEnvironment.getApplication();
+  private final Canvas canvas =
+      new Canvas(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+
+  @Test
+  public void dragDoesNotInvalidateThePicker() {
+    CountingColorPickerView colorPickerView = createPicker();
+    drag(colorPickerView);
+
+    // the selector and the flag are moved as child views, which damage only their own bounds.
+    assertEquals(0, colorPickerView.invalidations);
+    assertEquals(0, colorPickerView.dirtyArea);
+  }
+
+  @Test
+  public void singleCanvasDragInvalidatesOnlyTheParts() {
+    CountingColorPickerView colorPickerView = createPicker(true);
+    Rect oldSelector = new Rect();
+    Rect oldFlag = new Rect();
+    Rect newSelector = new Rect();
+    Rect newFlag = new Rect();
+    long redrawnArea = 0;
+    MotionEvent[] events = PickerTestUtils.circularDrag(SIZE / 2f, SIZE / 2f, SIZE / 3f, MOVES);
+    for (MotionEvent event : events) {
+      colorPickerView.getSelector().getHitRect(oldSelector);
+      colorPickerView.getFlagView().getHitRect(oldFlag);
+      colorPickerView.onTouchEvent(event);
+      ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+      colorPickerView.getSelector().getHitRect(newSelector);
+      colorPickerView.getFlagView().getHitRect(newFlag);
+
+      // the parts are redrawn where they were and where they are now.
+      Rect frameDirty = colorPickerView.frameDirty;
+      assertTrue(frameDirty.contains(oldSelector));
+      assertTrue(frameDirty.contains(oldFlag));
+      assertTrue(frameDirty.contains(newSelector));
+      assertTrue(frameDirty.contains(newFlag));
+      redrawnArea += (long) frameDirty.width() * frameDirty.height();
+      colorPickerView.draw(canvas);
+      frameDirty.setEmpty();
+    }
+    PickerTestUtils.recycle(events);
+
+    assertEquals(0, colorPickerView.fullInvalidations);
+    assertTrue(colorPickerView.invalidations >= MOVES);
+    // the selector and the flag cover a small part of the picker.
+    assertTrue(redrawnArea < (long) MOVES * SIZE * SIZE / 4);
+  }
+
+  private CountingColorPickerView createPicker() {
+    return createPicker(false);
+  }
+
+  private CountingColorPickerView createPicker(boolean singleCanvasEnabled) {
+    CountingColorPickerView colorPickerView = new CountingColorPickerView(context);
+    colorPickerView.setSingleCanvasEnabled(singleCanvasEnabled);
+    colorPickerView.setFlagView(new BubbleFlag(context));
+    PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+    ShadowLooper.idleMainLooper();
+    colorPickerView.draw(canvas);
+    colorPickerView.invalidations = 0;
+    colorPickerView.fullInvalidations = 0;
+    colorPickerView.dirtyArea = 0;
+    colorPickerView.frameDirty.setEmpty();
+    return colorPickerView;
+  }
+
+  private void drag(CountingColorPickerView colorPickerView) {
+    MotionEvent[] events = PickerTestUtils.circularDrag(SIZE / 2f, SIZE / 2f, SIZE / 3f, MOVES);
+    for (MotionEvent event : events) {
+      colorPickerView.onTouchEvent(event);
+      ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+      colorPickerView.draw(canvas);
+    }
+    PickerTestUtils.recycle(events);
+  }
+
+  /** counts the invalidations of the picker and sums their dirty areas. */
+  private static final class CountingColorPickerView extends ColorPickerView {
+
+    int invalidations;
+    int fullInvalidations;
+    long dirtyArea;
+    /** the union of the dirty rects since the last frame. */
+    final Rect frameDirty = new Rect();
+
+    CountingColorPickerView(Context context) {
+      super(context);
+    }
+
+    private void record(int left, int top, int right, int bottom) {
+      invalidations++;
+      dirtyArea += (long) Math.max(0, right - left) * Math.max(0, bottom - top);
+      frameDirty.union(left, top, right, bottom);
+    }
+
+    @Override
+    public void invalidate() {
+      fullInvalidations++;
+      record(0, 0, getWidth(), getHeight());
+      super.invalidate();
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void invalidate(Rect dirty) {
+      record(dirty.left, dirty.top, dirty.right, dirty.bottom);
+      super.invalidate(dirty);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void invalidate(int left, int top, int right, int bottom) {
+      record(left, top, right, bottom);
+      super.invalidate(left, top, right, bottom);
+    }
+  }
+}
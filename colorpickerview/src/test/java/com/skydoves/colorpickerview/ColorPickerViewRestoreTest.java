@@ -0,0 +1,216 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.Point;
+import android.os.Looper;
+import android.os.Parcelable;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.LinearLayout;
+import com.skydoves.colorpickerview.listeners.ColorListener;
+import com.skydoves.colorpickerview.preference.ColorPickerPreferenceManager;
+import com.skydoves.colorpickerview.preference.ColorPickerStorage;
+import com.skydoves.colorpickerview.preference.RecordingStorage;
+import com.skydoves.colorpickerview.sliders.AlphaSlideBar;
+import com.skydoves.colorpickerview.sliders.BrightnessSlideBar;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Restores pickers with a preference name and both sliders, from the instance state or from the
+ * preference, and counts the reads of the preference and the listener notifications.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ColorPickerViewRestoreTest {
+
+  private static final String NAME = "restored";
+  private static final int SIZE = 400;
+  private static final int SLIDER_HEIGHT = 40;
+  private static final long FRAME_MILLIS = 16;
+  private static final long LOAD_TIMEOUT_MILLIS = 5000;
+
+  private final Context context = RuntimeEnvironment.getApplication();
+  private final RecordingStorage storage = new RecordingStorage();
+  private final List<Integer> deliveredColors = new ArrayList<>();
+  private boolean deliveredOffTheMainThread;
+  private volatile boolean loadedActionRan;
+  private ColorPickerPreferenceManager manager;
+  private ColorPickerStorage previousStorage;
+
+  @Before
+  public void setStorage() {
+    manager = ColorPickerPreferenceManager.getInstance(context);
+    previousStorage = manager.getStorage();
+    manager.setStorage(storage);
+  }
+
+  @After
+  public void restoreStorage() {
+    storage.finishLoading();
+    manager.setStorage(previousStorage);
+  }
+
+  @Test
+  public void instanceStateIsRestoredWithoutReadingThePreference() {
+    Hierarchy saved = new Hierarchy();
+    PickerTestUtils.layOut(saved.root, SIZE, SIZE + 2 * SLIDER_HEIGHT);
+    saved.picker.moveSelectorPoint(120, 80, Color.RED);
+    saved.alphaSlider.updateSelectorX(SIZE / 2);
+    saved.brightnessSlider.updateSelectorX(SIZE / 3);
+    int assembledColor = saved.brightnessSlider.assembleColor();
+    SparseArray<Parcelable> container = new SparseArray<>();
+    saved.root.saveHierarchyState(container);
+    deliveredColors.clear();
+
+    Hierarchy restored = new Hierarchy();
+    restored.root.restoreHierarchyState(container);
+    attach(restored.root);
+
+    assertEquals(0, storage.getReadCount());
+    assertEquals(Collections.singletonList(assembledColor), deliveredColors);
+    assertEquals(new Point(120, 80), restored.picker.getSelectedPoint());
+    assertEquals(Color.RED, restored.picker.getPureColor());
+  }
+
+  @Test
+  public void preferenceIsRestoredOnTheMainThreadOnceLoaded() throws InterruptedException {
+    savePreference(120, 80, Color.RED);
+    storage.holdLoading();
+    ColorPickerView picker = createPicker();
+    attach(picker);
+    // the restore waits for the storage, without blocking the main thread.
+    assertTrue(deliveredColors.isEmpty());
+
+    finishLoading();
+    assertFalse(deliveredColors.isEmpty());
+    assertEquals(Color.RED, (int) deliveredColors.get(0));
+    assertFalse(deliveredOffTheMainThread);
+    assertEquals(Color.RED, picker.getPureColor());
+  }
+
+  @Test
+  public void queuedRestoreIsDroppedAfterTheInstanceStateIsRestored() throws InterruptedException {
+    savePreference(300, 300, Color.BLUE);
+    ColorPickerView saved = createPicker();
+    PickerTestUtils.layOut(saved, SIZE, SIZE);
+    saved.moveSelectorPoint(120, 80, Color.RED);
+    SparseArray<Parcelable> container = new SparseArray<>();
+    saved.saveHierarchyState(container);
+    deliveredColors.clear();
+
+    storage.holdLoading();
+    ColorPickerView picker = createPicker();
+    attach(picker);
+    // the restore from the preference is queued, and the instance state is applied at once.
+    picker.restoreHierarchyState(container);
+    assertEquals(1, deliveredColors.size());
+
+    finishLoading();
+    assertEquals(1, deliveredColors.size());
+    assertEquals(new Point(120, 80), picker.getSelectedPoint());
+    assertEquals(Color.RED, picker.getPureColor());
+  }
+
+  private void savePreference(int x, int y, int color) {
+    storage
+        .edit()
+        .putInt(NAME, ColorPickerStorage.FIELD_COLOR, color)
+        .putInt(NAME, ColorPickerStorage.FIELD_SELECTOR_X, x)
+        .putInt(NAME, ColorPickerStorage.FIELD_SELECTOR_Y, y)
+        .commit();
+  }
+
+  /**
+   * lets the storage finish loading, and runs the main looper until the actions queued for the
+   * load have run.
+   */
+  private void finishLoading() throws InterruptedException {
+    // queued after the picker's restore, so it runs after it.
+    manager.runWhenLoaded(() -> loadedActionRan = true);
+    storage.finishLoading();
+    long deadline = System.currentTimeMillis() + LOAD_TIMEOUT_MILLIS;
+    while (!loadedActionRan && System.currentTimeMillis() < deadline) {
+      Thread.sleep(FRAME_MILLIS);
+      ShadowLooper.idleMainLooper();
+    }
+    assertTrue(loadedActionRan);
+    ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  private ColorPickerView createPicker() {
+    ColorPickerView picker = new ColorPickerView(context);
+    picker.setId(1);
+    picker.setPreferenceName(NAME);
+    picker.setColorListener((ColorListener) this::onColorSelected);
+    return picker;
+  }
+
+  private void onColorSelected(int color, boolean fromUser) {
+    deliveredColors.add(color);
+    if (Looper.myLooper() != Looper.getMainLooper()) deliveredOffTheMainThread = true;
+  }
+
+  /** adds the view to an activity, and runs its layout and the global layout listeners. */
+  private static void attach(View root) {
+    Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    activity.setContentView(root);
+    for (int i = 0; i < 3; i++) {
+      ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** a picker with both sliders, whose views have ids so their instance state is saved. */
+  private final class Hierarchy {
+
+    final LinearLayout root = new LinearLayout(context);
+    final ColorPickerView picker = new ColorPickerView(context);
+    final AlphaSlideBar alphaSlider = new AlphaSlideBar(context);
+    final BrightnessSlideBar brightnessSlider = new BrightnessSlideBar(context);
+
+    Hierarchy() {
+      root.setOrientation(LinearLayout.VERTICAL);
+      picker.setId(1);
+      alphaSlider.setId(2);
+      brightnessSlider.setId(3);
+      root.addView(picker, new LinearLayout.LayoutParams(SIZE, SIZE));
+      root.addView(alphaSlider, new LinearLayout.LayoutParams(SIZE, SLIDER_HEIGHT));
+      root.addView(brightnessSlider, new LinearLayout.LayoutParams(SIZE, SLIDER_HEIGHT));
+      picker.attachAlphaSlider(alphaSlider);
+      picker.attachBrightnessSlider(brightnessSlider);
+      picker.setPreferenceName(NAME);
+      picker.setColorListener((ColorListener) ColorPickerViewRestoreTest.this::onColorSelected);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Point;
+import android.graphics.drawable.BitmapDrawable;
+import android.view.MotionEvent;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Selects colors of an image palette whose color index is built on the background thread. */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ColorPickerViewSelectByColorTest {
+
+  private static final int SIZE = 100;
+
+  @Test
+  public void selectionIsMadeWhenTheIndexIsBuilt() throws Exception {
+    ColorPickerView colorPickerView = createPicker();
+    Point center = colorPickerView.getSelectedPoint();
+
+    colorPickerView.selectByColor(Color.BLUE);
+    // the index isn't built on the calling thread.
+    assertEquals(center, colorPickerView.getSelectedPoint());
+
+    awaitColorIndex();
+    assertTrue(colorPickerView.getSelectedPoint().x >= SIZE / 2);
+    assertEquals(Color.BLUE, colorPickerView.getPureColor());
+
+    // the index is built once, so following selections are made immediately.
+    colorPickerView.selectByColor(Color.RED);
+    assertTrue(colorPickerView.getSelectedPoint().x < SIZE / 2);
+    assertEquals(Color.RED, colorPickerView.getPureColor());
+  }
+
+  @Test
+  public void touchDropsTheDeferredSelection() throws Exception {
+    ColorPickerView colorPickerView = createPicker();
+
+    colorPickerView.selectByColor(Color.BLUE);
+    MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 10, 10, 0);
+    colorPickerView.onTouchEvent(down);
+    down.recycle();
+    awaitColorIndex();
+    assertEquals(new Point(10, 10), colorPickerView.getSelectedPoint());
+  }
+
+  @Test
+  public void paletteChangeDropsTheDeferredSelection() throws Exception {
+    ColorPickerView colorPickerView = createPicker();
+
+    colorPickerView.selectByColor(Color.BLUE);
+    colorPickerView.setPaletteDrawable(createPalette());
+    PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+    colorPickerView.selectCenter();
+    awaitColorIndex();
+    assertEquals(new Point(SIZE / 2, SIZE / 2), colorPickerView.getSelectedPoint());
+  }
+
+  private static ColorPickerView createPicker() {
+    ColorPickerView colorPickerView = new ColorPickerView(RuntimeEnvironment.getApplication());
+    colorPickerView.setPaletteDrawable(createPalette());
+    PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+    colorPickerView.selectCenter();
+    return colorPickerView;
+  }
+
+  /** a palette whose left half is red and right half is blue. */
+  private static BitmapDrawable createPalette() {
+    Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+    for (int y = 0; y < SIZE; y++) {
+      for (int x = 0; x < SIZE; x++) {
+        bitmap.setPixel(x, y, x < SIZE / 2 ? Color.RED : Color.BLUE);
+      }
+    }
+    return new BitmapDrawable(RuntimeEnvironment.getApplication().getResources(), bitmap);
+  }
+
+  /** waits for the tasks queued on the background thread, and runs what they've posted. */
+  private static void awaitColorIndex() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    BackgroundExecutor.get().execute(latch::countDown);
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    ShadowLooper.idleMainLooper();
+  }
+}
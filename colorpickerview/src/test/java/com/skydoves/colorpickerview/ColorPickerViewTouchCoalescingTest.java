@@ -0,0 +1,149 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Point;
+import android.graphics.PointF;
+import android.view.MotionEvent;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Replays a drag of a high-rate touch panel, delivering several moves per frame, and counts how
+ * many times the palette is sampled with and without coalescing the moves.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ColorPickerViewTouchCoalescingTest {
+
+  private static final int SIZE = 400;
+  private static final int FRAMES = 60;
+  private static final long FRAME_MILLIS = 16;
+  /** a 240 Hz touch panel on a 60 Hz display. */
+  private static final int MOVES_PER_FRAME = 4;
+
+  @Test
+  public void coalescedDragSamplesOncePerFrame() {
+    CountingSampler plainSampler = new CountingSampler();
+    Point plainPoint = replayDrag(false, plainSampler);
+    CountingSampler coalescedSampler = new CountingSampler();
+    Point coalescedPoint = replayDrag(true, coalescedSampler);
+
+    // the down and up events are sampled immediately in both modes.
+    assertEquals(2 + FRAMES * MOVES_PER_FRAME, plainSampler.samples);
+    assertEquals(2 + FRAMES, coalescedSampler.samples);
+    assertEquals(plainPoint, coalescedPoint);
+  }
+
+  @Test
+  public void coalescedMoveIsProcessedOnTheNextFrame() {
+    ColorPickerView colorPickerView = createPicker(true, new CountingSampler());
+    MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 100, 100, 0);
+    MotionEvent move = MotionEvent.obtain(0, 4, MotionEvent.ACTION_MOVE, 150, 120, 0);
+    colorPickerView.onTouchEvent(down);
+    colorPickerView.onTouchEvent(move);
+    assertEquals(new Point(100, 100), colorPickerView.getSelectedPoint());
+
+    ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    assertEquals(new Point(150, 120), colorPickerView.getSelectedPoint());
+    down.recycle();
+    move.recycle();
+  }
+
+  @Test
+  public void detachDropsTheCoalescedMove() {
+    CountingSampler sampler = new CountingSampler();
+    ColorPickerView colorPickerView = createPicker(true, sampler);
+    MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 100, 100, 0);
+    MotionEvent move = MotionEvent.obtain(0, 4, MotionEvent.ACTION_MOVE, 150, 120, 0);
+    colorPickerView.onTouchEvent(down);
+    colorPickerView.onTouchEvent(move);
+    sampler.samples = 0;
+
+    colorPickerView.onDetachedFromWindow();
+    ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    assertEquals(0, sampler.samples);
+    assertEquals(new Point(100, 100), colorPickerView.getSelectedPoint());
+    down.recycle();
+    move.recycle();
+  }
+
+  private Point replayDrag(boolean coalescing, CountingSampler sampler) {
+    ColorPickerView colorPickerView = createPicker(coalescing, sampler);
+    sampler.samples = 0;
+
+    long time = 0;
+    MotionEvent down = MotionEvent.obtain(0, time, MotionEvent.ACTION_DOWN, 50, 50, 0);
+    colorPickerView.onTouchEvent(down);
+    down.recycle();
+    float x = 50;
+    for (int frame = 0; frame < FRAMES; frame++) {
+      for (int i = 0; i < MOVES_PER_FRAME; i++) {
+        x += 0.5f;
+        time += FRAME_MILLIS / MOVES_PER_FRAME;
+        MotionEvent move = MotionEvent.obtain(0, time, MotionEvent.ACTION_MOVE, x, 50 + x, 0);
+        colorPickerView.onTouchEvent(move);
+        move.recycle();
+      }
+      ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    MotionEvent up = MotionEvent.obtain(0, time, MotionEvent.ACTION_UP, x, 50 + x, 0);
+    colorPickerView.onTouchEvent(up);
+    up.recycle();
+    ShadowLooper.idleMainLooper();
+    return colorPickerView.getSelectedPoint();
+  }
+
+  private static ColorPickerView createPicker(boolean coalescing, PaletteSampler sampler) {
+    ColorPickerView colorPickerView = new ColorPickerView(RuntimeEnvironment.getApplication());
+    colorPickerView.setTouchCoalescingEnabled(coalescing);
+    colorPickerView.setPaletteSampler(sampler);
+    return PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+  }
+
+  /** samples a gradient over the whole view, counting the sampled colors. */
+  private static final class CountingSampler implements PaletteSampler {
+
+    int samples;
+
+    @Override
+    public void onLayout(int width, int height, Matrix imageMatrix) {}
+
+    @Override
+    public int colorAt(float x, float y) {
+      samples++;
+      return Color.rgb((int) x * 255 / SIZE, (int) y * 255 / SIZE, 128);
+    }
+
+    @Override
+    public boolean pointOf(int color, PointF out) {
+      return false;
+    }
+
+    @Override
+    public void clamp(float x, float y, PointF out) {
+      out.set(x, y);
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.skydoves.colorpickerview.listeners.ColorEnvelopeListener;
+import com.skydoves.colorpickerview.listeners.ColorListener;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class ConflatedListenerDispatcherTest {
+
+  private static final long TIMEOUT_SECONDS = 10;
+
+  private final List<ExecutorService> executors = new ArrayList<>();
+
+  @After
+  public void shutDownExecutors() {
+    for (ExecutorService executor : executors) {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void deliversColorsInOrder() {
+    ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    ConflatedListenerDispatcher dispatcher = new ConflatedListenerDispatcher(tasks::add);
+    List<Integer> delivered = new ArrayList<>();
+    ColorListener listener = (color, fromUser) -> delivered.add(color);
+
+    for (int color = 1; color <= 3; color++) {
+      dispatcher.dispatch(listener, color, null, true);
+      tasks.poll().run();
+    }
+    assertEquals(Arrays.asList(1, 2, 3), delivered);
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  public void conflatesColorsUntilTheExecutorRuns() {
+    ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    ConflatedListenerDispatcher dispatcher = new ConflatedListenerDispatcher(tasks::add);
+    List<Integer> delivered = new ArrayList<>();
+    ColorListener listener = (color, fromUser) -> delivered.add(color);
+
+    for (int color = 1; color <= 100; color++) {
+      dispatcher.dispatch(listener, color, null, true);
+    }
+    // a single delivery is scheduled for all the colors.
+    assertEquals(1, tasks.size());
+    tasks.poll().run();
+    assertEquals(Arrays.asList(100), delivered);
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  public void slowListenerSeesOnlyTheLatestColor() throws InterruptedException {
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(2);
+    List<Integer> delivered = new ArrayList<>();
+    ColorListener listener =
+        (color, fromUser) -> {
+          synchronized (delivered) {
+            delivered.add(color);
+          }
+          entered.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          done.countDown();
+        };
+    ConflatedListenerDispatcher dispatcher =
+        new ConflatedListenerDispatcher(newExecutor(Executors.newSingleThreadExecutor()));
+
+    dispatcher.dispatch(listener, 1, null, true);
+    assertTrue(entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    // the listener is blocked, and dispatching doesn't wait for it.
+    for (int color = 2; color <= 1000; color++) {
+      dispatcher.dispatch(listener, color, null, true);
+    }
+    release.countDown();
+    assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    synchronized (delivered) {
+      assertEquals(Arrays.asList(1, 1000), delivered);
+    }
+  }
+
+  @Test
+  public void listenerRunsOnTheExecutorOneAtATime() throws InterruptedException {
+    int count = 100_000;
+    ExecutorService executor = newExecutor(Executors.newFixedThreadPool(4));
+    ConflatedListenerDispatcher dispatcher = new ConflatedListenerDispatcher(executor);
+    Thread caller = Thread.currentThread();
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger violations = new AtomicInteger();
+    int[] lastColor = {0};
+    CountDownLatch finished = new CountDownLatch(1);
+    ColorEnvelopeListener listener =
+        (envelope, fromUser) -> {
+          if (active.incrementAndGet() != 1) violations.incrementAndGet();
+          if (Thread.currentThread() == caller) violations.incrementAndGet();
+          // colors are never delivered out of order.
+          if (envelope.getColor() <= lastColor[0]) violations.incrementAndGet();
+          lastColor[0] = envelope.getColor();
+          active.decrementAndGet();
+          if (envelope.getColor() == count) finished.countDown();
+        };
+
+    for (int color = 1; color <= count; color++) {
+      dispatcher.dispatch(listener, color, new ColorEnvelope(color), false);
+    }
+    assertTrue(finished.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    assertEquals(0, violations.get());
+  }
+
+  private ExecutorService newExecutor(ExecutorService executor) {
+    executors.add(executor);
+    return executor;
+  }
+}
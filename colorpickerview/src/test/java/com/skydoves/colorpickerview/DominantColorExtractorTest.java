@@ -0,0 +1,142 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class DominantColorExtractorTest {
+
+  private static final int MAX_COLORS = 8;
+  private static final int[] QUADRANT_COLORS = {Color.RED, Color.GREEN, Color.BLUE, Color.WHITE};
+
+  @Test
+  public void recycledBitmapDeliversNoColors() {
+    Bitmap bitmap = createQuadrants(64, 64);
+    bitmap.recycle();
+    List<?>[] delivered = new List<?>[1];
+    new DominantColorExtractor(bitmap, MAX_COLORS, colors -> delivered[0] = colors).run();
+    ShadowLooper.idleMainLooper();
+
+    assertNotNull(delivered[0]);
+    assertTrue(delivered[0].isEmpty());
+  }
+
+  @Test
+  public void missingBitmapDeliversNoColors() {
+    List<?>[] delivered = new List<?>[1];
+    new DominantColorExtractor(null, MAX_COLORS, colors -> delivered[0] = colors).run();
+    ShadowLooper.idleMainLooper();
+
+    assertNotNull(delivered[0]);
+    assertTrue(delivered[0].isEmpty());
+  }
+
+  @Test
+  public void hardwareBitmapIsCopiedBeforeReading() {
+    Bitmap bitmap = createQuadrants(256, 256);
+    Bitmap hardware = bitmap.copy(Bitmap.Config.HARDWARE, false);
+    assumeTrue(hardware != null && hardware.getConfig() == Bitmap.Config.HARDWARE);
+
+    List<DominantColor> expected = extract(bitmap);
+    List<DominantColor> extracted = extract(hardware);
+    assertSameColors(expected, extracted);
+    // the copy is released, and the palette bitmap is kept.
+    assertFalse(hardware.isRecycled());
+  }
+
+  @Test
+  public void quadrantsAreTheDominantColors() {
+    List<DominantColor> colors = extract(createQuadrants(256, 256));
+    assertEquals(QUADRANT_COLORS.length, colors.size());
+    for (DominantColor color : colors) {
+      assertEquals(colors.get(0).getPopulation(), color.getPopulation());
+      boolean found = false;
+      for (int quadrantColor : QUADRANT_COLORS) {
+        found |= color.getColor() == quadrantColor;
+      }
+      assertTrue(Integer.toHexString(color.getColor()), found);
+    }
+  }
+
+  @Test
+  public void extractionReadsABoundedNumberOfPixels() {
+    int[][] sizes = {{512, 512}, {1080, 1080}, {2048, 1536}, {4000, 3000}};
+    for (int[] size : sizes) {
+      Bitmap bitmap = createGradient(size[0], size[1]);
+      List<DominantColor> colors = extract(bitmap);
+      long population = 0;
+      for (DominantColor color : colors) {
+        population += color.getPopulation();
+      }
+      assertEquals(MAX_COLORS, colors.size());
+      // about MAX_SAMPLED_PIXELS are counted, whatever the size of the bitmap.
+      assertTrue(population <= 2L * DominantColorExtractor.MAX_SAMPLED_PIXELS);
+      bitmap.recycle();
+    }
+  }
+
+  private static List<DominantColor> extract(Bitmap bitmap) {
+    List<DominantColor> colors =
+        new DominantColorExtractor(bitmap, MAX_COLORS, dominantColors -> {}).extract();
+    assertNotNull(colors);
+    return colors;
+  }
+
+  private static void assertSameColors(List<DominantColor> expected, List<DominantColor> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getColor(), actual.get(i).getColor());
+      assertEquals(expected.get(i).getPopulation(), actual.get(i).getPopulation());
+    }
+  }
+
+  private static Bitmap createQuadrants(int width, int height) {
+    int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int quadrant = (y < height / 2 ? 0 : 2) + (x < width / 2 ? 0 : 1);
+        pixels[y * width + x] = QUADRANT_COLORS[quadrant];
+      }
+    }
+    return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+  }
+
+  private static Bitmap createGradient(int width, int height) {
+    int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        pixels[y * width + x] = Color.rgb(x * 255 / width, y * 255 / height, 128);
+      }
+    }
+    return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+  }
+}
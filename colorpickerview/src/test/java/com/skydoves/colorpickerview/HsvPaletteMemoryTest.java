@@ -0,0 +1,118 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.GraphicsMode;
+
+/**
+ * Compares the bitmap bytes retained by the default HSV palettes of several pickers, as they were
+ * before with a bitmap per picker, and as they are now without a bitmap or with a shared wheel.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class HsvPaletteMemoryTest {
+
+  private static final int SIZE = 1080;
+  private static final int PICKERS = 4;
+  /** an ARGB_8888 bitmap of the picker size, which every picker used to keep. */
+  private static final long BITMAP_BYTES = 4L * SIZE * SIZE;
+
+  @After
+  public void evictWheels() {
+    HsvPaletteCache.getInstance().evictAll();
+  }
+
+  @Test
+  public void bitmapPerPickerRetainsTheWholeBitmap() {
+    Set<Bitmap> bitmaps = newBitmapSet();
+    for (int i = 0; i < PICKERS; i++) {
+      // the palette as onSizeChanged created it before the bitmap-free mode.
+      Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+      ColorHsvPalette palette =
+          new ColorHsvPalette(RuntimeEnvironment.getApplication().getResources(), bitmap);
+      bitmaps.add(palette.getBitmap());
+    }
+    long retained = retainedBytes(bitmaps);
+    assertEquals(PICKERS * BITMAP_BYTES, retained);
+  }
+
+  @Test
+  public void bitmapFreePaletteRetainsNoBitmap() {
+    Set<Bitmap> bitmaps = newBitmapSet();
+    long cacheBytes = HsvPaletteCache.getInstance().getByteCount();
+    for (int i = 0; i < PICKERS; i++) {
+      ColorPickerView colorPickerView = createPicker(false);
+      Drawable drawable = paletteOf(colorPickerView);
+      assertTrue(colorPickerView.isHuePalette());
+      Bitmap bitmap = ((ColorHsvPalette) drawable).getBitmap();
+      if (bitmap != null) bitmaps.add(bitmap);
+    }
+    long retained = retainedBytes(bitmaps);
+    assertEquals(0, retained);
+    assertEquals(cacheBytes, HsvPaletteCache.getInstance().getByteCount());
+  }
+
+  @Test
+  public void sharedWheelIsRetainedOnce() {
+    Set<Bitmap> bitmaps = newBitmapSet();
+    long cacheBytes = HsvPaletteCache.getInstance().getByteCount();
+    for (int i = 0; i < PICKERS; i++) {
+      ColorPickerView colorPickerView = createPicker(true);
+      bitmaps.add(((ColorHsvPalette) paletteOf(colorPickerView)).getBitmap());
+    }
+    long retained = retainedBytes(bitmaps);
+    assertEquals(BITMAP_BYTES, retained);
+    assertEquals(BITMAP_BYTES, HsvPaletteCache.getInstance().getByteCount() - cacheBytes);
+  }
+
+  private static ColorPickerView createPicker(boolean hsvPaletteCacheEnabled) {
+    ColorPickerView colorPickerView = new ColorPickerView(RuntimeEnvironment.getApplication());
+    colorPickerView.setHsvPaletteCacheEnabled(hsvPaletteCacheEnabled);
+    return PickerTestUtils.layOut(colorPickerView, SIZE, SIZE);
+  }
+
+  /** the palette is the first child of the picker out of the single-canvas mode. */
+  private static Drawable paletteOf(ColorPickerView colorPickerView) {
+    return ((ImageView) colorPickerView.getChildAt(0)).getDrawable();
+  }
+
+  private static Set<Bitmap> newBitmapSet() {
+    return Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  private static long retainedBytes(Set<Bitmap> bitmaps) {
+    long bytes = 0;
+    for (Bitmap bitmap : bitmaps) {
+      bytes += bitmap.getAllocationByteCount();
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Color;
+import android.graphics.PointF;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Compares every pixel of the {@link HsvWheelSampler} with the trigonometric path using {@link
+ * Color#HSVToColor(float[])} which it replaced.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HsvWheelSamplerTest {
+
+  private static final int[][] SIZES = {
+    {1080, 1080}, {1081, 1000}, {720, 1280}, {333, 331}, {17, 31}, {2, 2}, {1, 1}
+  };
+
+  @Test
+  public void colorAtMatchesTrigonometricPathOnEveryPixel() {
+    float[] hsv = new float[3];
+    for (int[] size : SIZES) {
+      int width = size[0];
+      int height = size[1];
+      HsvWheelSampler sampler = new HsvWheelSampler();
+      sampler.resize(width, height);
+
+      int maxDifference = 0;
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          int expected = trigonometricColorAt(x, y, width, height, hsv);
+          int actual = sampler.colorAt(x, y);
+          maxDifference = Math.max(maxDifference, channelDifference(expected, actual));
+        }
+      }
+      assertTrue(width + "x" + height + " differs by " + maxDifference, maxDifference <= 1);
+    }
+  }
+
+  @Test
+  public void pointOfMatchesTrigonometricPathForEveryColor() {
+    float[] hsv = new float[3];
+    PointF point = new PointF();
+    for (int[] size : SIZES) {
+      int width = size[0];
+      int height = size[1];
+      HsvWheelSampler sampler = new HsvWheelSampler();
+      sampler.resize(width, height);
+
+      // every fourth value of each channel, including both ends.
+      for (int r = 0; r <= 256; r += 4) {
+        for (int g = 0; g <= 256; g += 4) {
+          for (int b = 0; b <= 256; b += 4) {
+            int color = Color.rgb(Math.min(r, 255), Math.min(g, 255), Math.min(b, 255));
+            Color.colorToHSV(color, hsv);
+            float centerX = width * 0.5f;
+            float centerY = height * 0.5f;
+            float radius = hsv[1] * Math.min(centerX, centerY);
+            int expectedX = (int) (radius * Math.cos(Math.toRadians(hsv[0])) + centerX);
+            int expectedY = (int) (-radius * Math.sin(Math.toRadians(hsv[0])) + centerY);
+
+            assertTrue(sampler.pointOf(color, point));
+            assertTrue(
+                Integer.toHexString(color) + " on " + width + "x" + height,
+                Math.abs(point.x - expectedX) <= 1 && Math.abs(point.y - expectedY) <= 1);
+          }
+        }
+      }
+    }
+  }
+
+  /** the color of a wheel pixel as it was computed before the sampler. */
+  private static int trigonometricColorAt(
+      int pixelX, int pixelY, int width, int height, float[] hsv) {
+    float x = pixelX - width * 0.5f;
+    float y = pixelY - height * 0.5f;
+    double r = Math.sqrt(x * x + y * y);
+    float radius = Math.min(width, height) * 0.5f;
+    hsv[0] = (float) (Math.atan2(y, -x) / Math.PI * 180f) + 180;
+    hsv[1] = Math.max(0f, Math.min(1f, (float) (r / radius)));
+    hsv[2] = 1;
+    return Color.HSVToColor(hsv);
+  }
+
+  private static int channelDifference(int expected, int actual) {
+    int red = Math.abs(Color.red(expected) - Color.red(actual));
+    int green = Math.abs(Color.green(expected) - Color.green(actual));
+    int blue = Math.abs(Color.blue(expected) - Color.blue(actual));
+    int alpha = Math.abs(Color.alpha(expected) - Color.alpha(actual));
+    return Math.max(Math.max(red, green), Math.max(blue, alpha));
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.PointF;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Compares clamping touches with the {@link OpacityIndex} against the bisection toward the view
+ * center which it replaced, on a concave palette with an island: a ring with a gap around a disk.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class OpacityIndexBenchmarkTest {
+
+  private static final int SIZE = 1024;
+  private static final int TOUCHES = 200;
+
+  private final RingSampler sampler = new RingSampler();
+
+  @Test
+  public void clampsToTheNearestOpaquePoint() {
+    OpacityIndex index = OpacityIndex.build(sampler::isOpaque, SIZE, SIZE);
+    float[] touches = transparentTouches();
+    int[] opaquePoints = opaquePoints();
+    int step = (SIZE + 511) / 512;
+
+    float maxIndexExcess = 0;
+    float maxBisectionExcess = 0;
+    PointF out = new PointF();
+    for (int i = 0; i < touches.length; i += 2) {
+      float x = touches[i];
+      float y = touches[i + 1];
+      float nearest = nearestDistance(opaquePoints, x, y);
+
+      index.clamp(sampler, x, y, out);
+      assertNotEquals(Color.TRANSPARENT, sampler.colorAt(out.x, out.y));
+      maxIndexExcess = Math.max(maxIndexExcess, distance(x, y, out.x, out.y) - nearest);
+
+      bisect(sampler, x, y, out);
+      maxBisectionExcess = Math.max(maxBisectionExcess, distance(x, y, out.x, out.y) - nearest);
+    }
+    assertTrue(maxIndexExcess <= step);
+    assertTrue(maxBisectionExcess > 10 * step);
+  }
+
+  @Test
+  public void clampsWithFewerSamplesThanBisection() {
+    OpacityIndex index = OpacityIndex.build(sampler::isOpaque, SIZE, SIZE);
+    float[] touches = transparentTouches();
+    PointF out = new PointF();
+
+    sampler.samples = 0;
+    for (int i = 0; i < touches.length; i += 2) {
+      index.clamp(sampler, touches[i], touches[i + 1], out);
+    }
+    long indexSamples = sampler.samples;
+
+    sampler.samples = 0;
+    for (int i = 0; i < touches.length; i += 2) {
+      bisect(sampler, touches[i], touches[i + 1], out);
+    }
+    long bisectionSamples = sampler.samples;
+
+    assertTrue(indexSamples < bisectionSamples);
+  }
+
+  /** the bisection toward the view center which clamped touches before the opacity index. */
+  private static void bisect(PaletteSampler sampler, float startX, float startY, PointF out) {
+    float endX = SIZE / 2;
+    float endY = SIZE / 2;
+    while (distance(startX, startY, endX, endY) > 3) {
+      float centerX = (endX + startX) / 2;
+      float centerY = (endY + startY) / 2;
+      int color = sampler.colorAt(centerX, centerY);
+      if (color == Color.TRANSPARENT) {
+        startX = centerX;
+        startY = centerY;
+      } else {
+        endX = centerX;
+        endY = centerY;
+      }
+    }
+    out.set(endX, endY);
+  }
+
+  private float[] transparentTouches() {
+    Random random = new Random(3);
+    float[] touches = new float[TOUCHES * 2];
+    for (int i = 0; i < touches.length; ) {
+      float x = random.nextFloat() * SIZE;
+      float y = random.nextFloat() * SIZE;
+      if (sampler.isOpaque(x, y)) continue;
+      touches[i++] = x;
+      touches[i++] = y;
+    }
+    return touches;
+  }
+
+  private int[] opaquePoints() {
+    int count = 0;
+    int[] points = new int[SIZE * SIZE * 2];
+    for (int y = 0; y < SIZE; y++) {
+      for (int x = 0; x < SIZE; x++) {
+        if (sampler.isOpaque(x + 0.5f, y + 0.5f)) {
+          points[count++] = x;
+          points[count++] = y;
+        }
+      }
+    }
+    return Arrays.copyOf(points, count);
+  }
+
+  private static float nearestDistance(int[] points, float x, float y) {
+    float nearest = Float.MAX_VALUE;
+    for (int i = 0; i < points.length; i += 2) {
+      nearest = Math.min(nearest, distance(x, y, points[i] + 0.5f, points[i + 1] + 0.5f));
+    }
+    return nearest;
+  }
+
+  private static float distance(float startX, float startY, float endX, float endY) {
+    float dx = endX - startX;
+    float dy = endY - startY;
+    return (float) Math.sqrt(dx * dx + dy * dy);
+  }
+
+  /** a ring with a gap on its right side around a disk, counting its samples. */
+  private static final class RingSampler implements PaletteSampler {
+
+    long samples;
+
+    boolean isOpaque(float x, float y) {
+      float dx = x - SIZE / 2f;
+      float dy = y - SIZE / 2f;
+      float radius = (float) Math.sqrt(dx * dx + dy * dy);
+      if (radius < 60) return true;
+      if (radius < 250 || radius > 450) return false;
+      return !(dx > 0 && Math.abs(dy) < dx * 0.5f);
+    }
+
+    @Override
+    public void onLayout(int width, int height, Matrix imageMatrix) {}
+
+    @Override
+    public int colorAt(float x, float y) {
+      samples++;
+      return isOpaque(x, y) ? Color.RED : Color.TRANSPARENT;
+    }
+
+    @Override
+    public boolean pointOf(int color, PointF out) {
+      return false;
+    }
+
+    @Override
+    public void clamp(float x, float y, PointF out) {
+      out.set(x, y);
+    }
+  }
+}
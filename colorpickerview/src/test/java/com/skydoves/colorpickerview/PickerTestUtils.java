@@ -0,0 +1,69 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertTrue;
+
+import android.view.MotionEvent;
+import android.view.View;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.robolectric.shadows.ShadowLooper;
+
+/** PickerTestUtils lays out pickers and builds touch events for the tests. */
+final class PickerTestUtils {
+
+  private PickerTestUtils() {}
+
+  /** measures and lays out a view at the exact size, as its parent would. */
+  static <T extends View> T layOut(T view, int width, int height) {
+    view.measure(
+        View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+    view.layout(0, 0, width, height);
+    return view;
+  }
+
+  /**
+   * builds a drag of moves around a circle of the radius at the center, as a finger does, so
+   * every move samples a different color.
+   */
+  static MotionEvent[] circularDrag(float centerX, float centerY, float radius, int count) {
+    MotionEvent[] events = new MotionEvent[count];
+    for (int i = 0; i < count; i++) {
+      double angle = 2 * Math.PI * i / count;
+      float x = centerX + (float) (radius * Math.cos(angle));
+      float y = centerY + (float) (radius * Math.sin(angle));
+      int action = i == 0 ? MotionEvent.ACTION_DOWN : MotionEvent.ACTION_MOVE;
+      events[i] = MotionEvent.obtain(0, i * 8L, action, x, y, 0);
+    }
+    return events;
+  }
+
+  static void recycle(MotionEvent[] events) {
+    for (MotionEvent event : events) {
+      event.recycle();
+    }
+  }
+
+  /** waits for the tasks queued on the background thread, and runs what they've posted. */
+  static void awaitBackgroundTasks() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    BackgroundExecutor.get().execute(latch::countDown);
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    ShadowLooper.idleMainLooper();
+  }
+}
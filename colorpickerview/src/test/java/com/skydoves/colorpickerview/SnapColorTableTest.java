@@ -0,0 +1,75 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import android.graphics.Color;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class SnapColorTableTest {
+
+  @Test
+  public void allowedColorsSnapToThemselves() {
+    int[] colors = randomColors(SnapColorTable.MAX_COLORS);
+    SnapColorTable table = SnapColorTable.build(colors, null);
+    assertNotNull(table);
+    assertEquals(colors.length, table.size());
+    for (int color : colors) {
+      int index = table.indexOf(color);
+      assertEquals(color, table.getColor(index));
+      assertEquals(color, table.snap(color));
+    }
+  }
+
+  @Test
+  public void colorsSnapToTheNearestAllowedColor() {
+    int[] colors = {Color.RED, Color.GREEN, Color.BLUE, Color.WHITE, Color.BLACK};
+    SnapColorTable table = SnapColorTable.build(colors, null);
+    assertNotNull(table);
+    assertEquals(Color.RED, table.snap(Color.rgb(230, 20, 30)));
+    assertEquals(Color.GREEN, table.snap(Color.rgb(10, 200, 40)));
+    assertEquals(Color.BLUE, table.snap(Color.rgb(20, 30, 220)));
+    assertEquals(Color.WHITE, table.snap(Color.rgb(240, 240, 230)));
+    assertEquals(Color.BLACK, table.snap(Color.rgb(20, 10, 30)));
+    // the alpha of a color doesn't change where it snaps to.
+    assertEquals(Color.RED, table.snap(Color.argb(128, 230, 20, 30)));
+  }
+
+  @Test
+  public void canceledBuildReturnsNoTable() {
+    int[] colors = randomColors(SnapColorTable.MAX_COLORS);
+    SnapColorTable.BuildTask task = new SnapColorTable.BuildTask(colors, table -> {});
+    task.cancel();
+    assertNull(SnapColorTable.build(colors, task));
+  }
+
+  private static int[] randomColors(int count) {
+    Random random = new Random(42);
+    int[] colors = new int[count];
+    for (int i = 0; i < count; i++) {
+      colors[i] = 0xFF000000 | random.nextInt(0x1000000);
+    }
+    return colors;
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class SummedAreaTableTest {
+
+  private static final SummedAreaTable.Kernel[] KERNELS = {
+    SummedAreaTable.Kernel.of(SamplingKernel.BOX, 3),
+    SummedAreaTable.Kernel.of(SamplingKernel.BOX, 7),
+    SummedAreaTable.Kernel.of(SamplingKernel.GAUSSIAN, 5),
+    SummedAreaTable.Kernel.of(SamplingKernel.GAUSSIAN, 9),
+  };
+
+  @Test
+  public void uniformPaletteKeepsItsColorOnEdges() {
+    int color = 0xFF3366CC;
+    PaletteSnapshot snapshot = snapshot(9, 7, (x, y) -> color);
+    SummedAreaTable table = new SummedAreaTable(snapshot);
+    for (SummedAreaTable.Kernel kernel : KERNELS) {
+      for (int y = 0; y < 7; y++) {
+        for (int x = 0; x < 9; x++) {
+          assertEquals(color, table.sample(x, y, kernel));
+          assertEquals(color, SummedAreaTable.sampleDirectly(snapshot, x, y, kernel));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void clippedBoxIsWeightedByItsClippedArea() {
+    // the left column is red and the rest is blue.
+    PaletteSnapshot snapshot = snapshot(5, 5, (x, y) -> x == 0 ? Color.RED : Color.BLUE);
+    SummedAreaTable table = new SummedAreaTable(snapshot);
+    SummedAreaTable.Kernel kernel = SummedAreaTable.Kernel.of(SamplingKernel.BOX, 3);
+
+    // on the left edge the box is clipped to 2x3 pixels, half of them red.
+    int half = Color.rgb(128, 0, 128);
+    assertEquals(half, table.sample(0, 2, kernel));
+    // on the corner the box is clipped to 2x2 pixels, half of them red.
+    assertEquals(half, table.sample(0, 0, kernel));
+    // one pixel to the right a third of the full box is red.
+    assertEquals(Color.rgb(85, 0, 170), table.sample(1, 2, kernel));
+    assertEquals(Color.BLUE, table.sample(2, 2, kernel));
+  }
+
+  @Test
+  public void boxAveragesMatchBruteForceOnEveryPixel() {
+    Random random = new Random(5);
+    PaletteSnapshot snapshot = snapshot(13, 11, (x, y) -> random.nextInt());
+    SummedAreaTable table = new SummedAreaTable(snapshot);
+    for (int size = 3; size <= 15; size += 2) {
+      SummedAreaTable.Kernel kernel = SummedAreaTable.Kernel.of(SamplingKernel.BOX, size);
+      for (int y = 0; y < 11; y++) {
+        for (int x = 0; x < 13; x++) {
+          int expected = bruteForceBoxAverage(snapshot, x, y, size / 2);
+          int actual = table.sample(x, y, kernel);
+          assertTrue(
+              "size " + size + " at " + x + "," + y,
+              channelDifference(expected, actual) <= 1);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void directSamplingMatchesTable() {
+    Random random = new Random(7);
+    PaletteSnapshot snapshot = snapshot(13, 11, (x, y) -> random.nextInt());
+    SummedAreaTable table = new SummedAreaTable(snapshot);
+    for (SummedAreaTable.Kernel kernel : KERNELS) {
+      for (int y = 0; y < 11; y++) {
+        for (int x = 0; x < 13; x++) {
+          assertEquals(
+              table.sample(x, y, kernel), SummedAreaTable.sampleDirectly(snapshot, x, y, kernel));
+        }
+      }
+    }
+  }
+
+  /** the alpha-weighted average of the box clipped by the palette bounds. */
+  private static int bruteForceBoxAverage(PaletteSnapshot snapshot, int x, int y, int radius) {
+    double alpha = 0;
+    double red = 0;
+    double green = 0;
+    double blue = 0;
+    int count = 0;
+    for (int row = y - radius; row <= y + radius; row++) {
+      for (int column = x - radius; column <= x + radius; column++) {
+        if (row < 0 || column < 0) continue;
+        if (row >= snapshot.getHeight() || column >= snapshot.getWidth()) continue;
+        int pixel = snapshot.getPixel(column, row);
+        alpha += Color.alpha(pixel);
+        red += Color.red(pixel) * Color.alpha(pixel);
+        green += Color.green(pixel) * Color.alpha(pixel);
+        blue += Color.blue(pixel) * Color.alpha(pixel);
+        count++;
+      }
+    }
+    if (alpha == 0) return snapshot.getPixel(x, y);
+    return Color.argb(
+        (int) Math.round(alpha / count),
+        (int) Math.round(red / alpha),
+        (int) Math.round(green / alpha),
+        (int) Math.round(blue / alpha));
+  }
+
+  private static int channelDifference(int expected, int actual) {
+    int red = Math.abs(Color.red(expected) - Color.red(actual));
+    int green = Math.abs(Color.green(expected) - Color.green(actual));
+    int blue = Math.abs(Color.blue(expected) - Color.blue(actual));
+    int alpha = Math.abs(Color.alpha(expected) - Color.alpha(actual));
+    return Math.max(Math.max(red, green), Math.max(blue, alpha));
+  }
+
+  private static PaletteSnapshot snapshot(int width, int height, PixelFunction function) {
+    Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        bitmap.setPixel(x, y, function.getPixel(x, y));
+      }
+    }
+    return new PaletteSnapshot(bitmap);
+  }
+
+  private interface PixelFunction {
+    int getPixel(int x, int y);
+  }
+}
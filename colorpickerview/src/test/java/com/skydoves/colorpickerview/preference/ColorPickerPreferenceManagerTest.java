@@ -0,0 +1,140 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview.preference;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.Point;
+import android.view.View;
+import com.skydoves.colorpickerview.ColorPickerView;
+import com.skydoves.colorpickerview.sliders.AlphaSlideBar;
+import com.skydoves.colorpickerview.sliders.BrightnessSlideBar;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+/** Counts the editors written by saving pickers, with and without the write-behind window. */
+@RunWith(RobolectricTestRunner.class)
+public class ColorPickerPreferenceManagerTest {
+
+  private static final String NAME = "picker";
+  private static final int SIZE = 400;
+  private static final int SAVES = 10;
+  private static final long WINDOW_MILLIS = 500;
+
+  private final Context context = RuntimeEnvironment.getApplication();
+  private final RecordingStorage storage = new RecordingStorage();
+  private ColorPickerPreferenceManager manager;
+  private ColorPickerStorage previousStorage;
+
+  @Before
+  public void setStorage() {
+    manager = ColorPickerPreferenceManager.getInstance(context);
+    previousStorage = manager.getStorage();
+    manager.setStorage(storage);
+  }
+
+  @After
+  public void restoreStorage() {
+    manager.setWriteBehindDuration(0);
+    manager.setStorage(previousStorage);
+  }
+
+  @Test
+  public void savingAPickerWritesOneEditor() {
+    ColorPickerView colorPickerView = createPicker();
+    colorPickerView.moveSelectorPoint(120, 80, Color.RED);
+    manager.saveColorPickerData(colorPickerView);
+
+    // the color, the selector and both sliders are written together.
+    assertEquals(1, storage.getWriteCount());
+    assertField(colorPickerView.getColor(), ColorPickerStorage.FIELD_COLOR);
+    assertField(120, ColorPickerStorage.FIELD_SELECTOR_X);
+    assertField(80, ColorPickerStorage.FIELD_SELECTOR_Y);
+    assertField(
+        colorPickerView.getAlphaSlideBar().getSelectedX(), ColorPickerStorage.FIELD_ALPHA_SLIDER);
+    assertField(
+        colorPickerView.getBrightnessSlider().getSelectedX(),
+        ColorPickerStorage.FIELD_BRIGHTNESS_SLIDER);
+  }
+
+  @Test
+  public void flushWritesTheCoalescedSavesOnce() {
+    manager.setWriteBehindDuration(WINDOW_MILLIS);
+    ColorPickerView colorPickerView = createPicker();
+    saveRepeatedly(colorPickerView);
+    assertEquals(0, storage.getWriteCount());
+    // the held data is read before it's written.
+    assertEquals(
+        new Point(100 + SAVES - 1, 80), manager.getSelectorPosition(NAME, new Point()));
+
+    manager.flush();
+    assertEquals(1, storage.getWriteCount());
+    assertField(100 + SAVES - 1, ColorPickerStorage.FIELD_SELECTOR_X);
+    // nothing is left for the window to write.
+    ShadowLooper.idleMainLooper(WINDOW_MILLIS * 2, TimeUnit.MILLISECONDS);
+    assertEquals(1, storage.getWriteCount());
+  }
+
+  @Test
+  public void windowWritesTheCoalescedSavesOnce() {
+    manager.setWriteBehindDuration(WINDOW_MILLIS);
+    ColorPickerView colorPickerView = createPicker();
+    saveRepeatedly(colorPickerView);
+    ShadowLooper.idleMainLooper(WINDOW_MILLIS / 2, TimeUnit.MILLISECONDS);
+    assertEquals(0, storage.getWriteCount());
+
+    ShadowLooper.idleMainLooper(WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+    assertEquals(1, storage.getWriteCount());
+    assertField(100 + SAVES - 1, ColorPickerStorage.FIELD_SELECTOR_X);
+  }
+
+  private void saveRepeatedly(ColorPickerView colorPickerView) {
+    for (int i = 0; i < SAVES; i++) {
+      colorPickerView.moveSelectorPoint(100 + i, 80, Color.RED);
+      manager.saveColorPickerData(colorPickerView);
+    }
+  }
+
+  private void assertField(int expected, int field) {
+    assertEquals(Integer.valueOf(expected), storage.peek(NAME, field));
+  }
+
+  private ColorPickerView createPicker() {
+    ColorPickerView colorPickerView = layOut(new ColorPickerView(context), SIZE, SIZE);
+    colorPickerView.attachAlphaSlider(layOut(new AlphaSlideBar(context), SIZE, SIZE / 10));
+    colorPickerView.attachBrightnessSlider(
+        layOut(new BrightnessSlideBar(context), SIZE, SIZE / 10));
+    colorPickerView.setPreferenceName(NAME);
+    return colorPickerView;
+  }
+
+  private static <T extends View> T layOut(T view, int width, int height) {
+    view.measure(
+        View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+    view.layout(0, 0, width, height);
+    return view;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview.preference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedColorPickerStorageTest {
+
+  private File file;
+
+  @Before
+  public void createFile() throws IOException {
+    file = File.createTempFile("colorpicker", ".bin");
+    file.delete();
+  }
+
+  @After
+  public void deleteFile() {
+    file.delete();
+  }
+
+  @Test
+  public void longNamesAreSavedAndReopened() throws IOException {
+    String[] names = {"short", repeat("long", 100), repeat("\uD55C", 300), "after"};
+    MappedColorPickerStorage storage = new MappedColorPickerStorage(file);
+    for (int i = 0; i < names.length; i++) {
+      storage
+          .edit()
+          .putInt(names[i], ColorPickerStorage.FIELD_COLOR, i + 1)
+          .putInt(names[i], ColorPickerStorage.FIELD_BRIGHTNESS_SLIDER, -(i + 1))
+          .apply();
+    }
+    storage.close();
+
+    storage = new MappedColorPickerStorage(file);
+    for (int i = 0; i < names.length; i++) {
+      assertEquals(i + 1, storage.getInt(names[i], ColorPickerStorage.FIELD_COLOR, 0));
+      assertEquals(
+          -(i + 1), storage.getInt(names[i], ColorPickerStorage.FIELD_BRIGHTNESS_SLIDER, 0));
+    }
+    storage.close();
+  }
+
+  @Test
+  public void growsPastTheInitialCapacity() throws IOException {
+    int count = 5000;
+    MappedColorPickerStorage storage = new MappedColorPickerStorage(file);
+    for (int i = 0; i < count; i++) {
+      storage.edit().putInt("picker" + i, ColorPickerStorage.FIELD_SELECTOR_X, i).apply();
+    }
+    storage.close();
+
+    storage = new MappedColorPickerStorage(file);
+    for (int i = 0; i < count; i++) {
+      assertEquals(i, storage.getInt("picker" + i, ColorPickerStorage.FIELD_SELECTOR_X, -1));
+    }
+    storage.close();
+  }
+
+  @Test
+  public void applyDropsChangesWhichCantBeWritten() throws IOException {
+    MappedColorPickerStorage storage = new MappedColorPickerStorage(file);
+    storage.close();
+    // a name longer than the initial records grows the file, which fails once it's closed.
+    String name = repeat("x", 64 * 128);
+    storage.edit().putInt(name, ColorPickerStorage.FIELD_COLOR, 1).apply();
+    assertFalse(storage.edit().putInt(name, ColorPickerStorage.FIELD_COLOR, 1).commit());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsTooLongNamesWhenEditing() throws IOException {
+    MappedColorPickerStorage storage = new MappedColorPickerStorage(file);
+    try {
+      storage
+          .edit()
+          .putInt(
+              repeat("x", MappedColorPickerStorage.MAX_NAME_BYTES + 1),
+              ColorPickerStorage.FIELD_COLOR,
+              1);
+    } finally {
+      storage.close();
+    }
+  }
+
+  private static String repeat(String text, int count) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.append(text);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview.preference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** RecordingStorage keeps the fields in memory, and counts the reads and the written editors. */
+public final class RecordingStorage implements ColorPickerStorage {
+
+  private static final long LOAD_TIMEOUT_SECONDS = 5;
+
+  private final Map<String, Integer> values = new HashMap<>();
+  private final AtomicInteger reads = new AtomicInteger();
+  private final AtomicInteger writes = new AtomicInteger();
+  private volatile CountDownLatch loading = new CountDownLatch(0);
+
+  @Override
+  public int getInt(String name, int field, int defaultValue) {
+    awaitLoaded();
+    reads.incrementAndGet();
+    synchronized (values) {
+      Integer value = values.get(keyOf(name, field));
+      return value != null ? value : defaultValue;
+    }
+  }
+
+  @Override
+  public ColorPickerStorage.Editor edit() {
+    return new Editor();
+  }
+
+  /** holds the reads until {@link #finishLoading()}, like a storage still loading from the disk. */
+  public void holdLoading() {
+    loading = new CountDownLatch(1);
+  }
+
+  /** lets the reads held by {@link #holdLoading()} go on. */
+  public void finishLoading() {
+    loading.countDown();
+  }
+
+  /** gets the number of reads. */
+  public int getReadCount() {
+    return reads.get();
+  }
+
+  /** gets the number of editors applied or committed. */
+  public int getWriteCount() {
+    return writes.get();
+  }
+
+  /** gets a field without counting it as a read. */
+  public Integer peek(String name, int field) {
+    synchronized (values) {
+      return values.get(keyOf(name, field));
+    }
+  }
+
+  private void awaitLoaded() {
+    try {
+      if (!loading.await(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("the storage has not finished loading.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static String keyOf(String name, int field) {
+    return name + "#" + field;
+  }
+
+  private final class Editor implements ColorPickerStorage.Editor {
+
+    private final List<Runnable> changes = new ArrayList<>();
+
+    @Override
+    public ColorPickerStorage.Editor putInt(String name, int field, int value) {
+      changes.add(() -> values.put(keyOf(name, field), value));
+      return this;
+    }
+
+    @Override
+    public ColorPickerStorage.Editor remove(String name, int field) {
+      changes.add(() -> values.remove(keyOf(name, field)));
+      return this;
+    }
+
+    @Override
+    public ColorPickerStorage.Editor clear() {
+      changes.add(0, values::clear);
+      return this;
+    }
+
+    @Override
+    public void apply() {
+      commit();
+    }
+
+    @Override
+    public boolean commit() {
+      synchronized (values) {
+        for (Runnable change : changes) {
+          change.run();
+        }
+      }
+      writes.incrementAndGet();
+      return true;
+    }
+  }
+}
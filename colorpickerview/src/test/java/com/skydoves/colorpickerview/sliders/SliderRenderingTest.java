@@ -0,0 +1,239 @@
+/*
+ * Designed and developed by 2017 skydoves (Jaewoong Eum)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.skydoves.colorpickerview.sliders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.view.View;
+import com.skydoves.colorpickerview.ColorPickerView;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.GraphicsMode;
+
+/**
+ * Counts the draw calls of a slider frame and the layers filling the whole slider, which is the
+ * overdraw of the slider, with and without the white background the sliders used to set.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class SliderRenderingTest {
+
+  private static final int WIDTH = 400;
+  private static final int HEIGHT = 40;
+
+  private final Context context = RuntimeEnvironment.getApplication();
+  private ColorPickerView colorPickerView;
+
+  @Before
+  public void createPicker() {
+    colorPickerView = layOut(new ColorPickerView(context), WIDTH, WIDTH);
+    colorPickerView.setPureColor(Color.RED);
+  }
+
+  @Test
+  public void alphaSliderDrawsTheCheckerboardAndTheGradient() {
+    AlphaSlideBar slider = layOut(new AlphaSlideBar(context), WIDTH, HEIGHT);
+    colorPickerView.attachAlphaSlider(slider);
+
+    CountingCanvas frame = drawFrame(slider);
+    slider.setBackgroundColor(Color.WHITE);
+    CountingCanvas framed = drawFrame(slider);
+    // the checkerboard, the gradient and the border.
+    assertEquals(3, frame.drawCalls);
+    assertEquals(2, frame.filledLayers);
+    assertEquals(frame.drawCalls + 1, framed.drawCalls);
+    assertEquals(frame.filledLayers + 1, framed.filledLayers);
+  }
+
+  @Test
+  public void brightnessSliderDrawsTheGradient() {
+    BrightnessSlideBar slider = layOut(new BrightnessSlideBar(context), WIDTH, HEIGHT);
+    colorPickerView.attachBrightnessSlider(slider);
+
+    CountingCanvas frame = drawFrame(slider);
+    slider.setBackgroundColor(Color.WHITE);
+    CountingCanvas framed = drawFrame(slider);
+    // the gradient and the border.
+    assertEquals(2, frame.drawCalls);
+    assertEquals(1, frame.filledLayers);
+    assertEquals(frame.drawCalls + 1, framed.drawCalls);
+    assertEquals(frame.filledLayers + 1, framed.filledLayers);
+  }
+
+  @Test
+  public void sliderIsRedrawnOnlyWhenTheColorChanges() {
+    CountingAlphaSlideBar slider = layOut(new CountingAlphaSlideBar(context), WIDTH, HEIGHT);
+    colorPickerView.attachAlphaSlider(slider);
+    Shader red = slider.colorPaint.getShader();
+    slider.invalidations = 0;
+
+    for (int i = 0; i < 100; i++) {
+      slider.notifyColor();
+    }
+    assertEquals(0, slider.invalidations);
+    assertSame(red, slider.colorPaint.getShader());
+
+    colorPickerView.setPureColor(Color.BLUE);
+    slider.notifyColor();
+    assertEquals(1, slider.invalidations);
+    assertNotSame(red, slider.colorPaint.getShader());
+
+    // going back to a painted color reuses its gradient.
+    colorPickerView.setPureColor(Color.RED);
+    slider.notifyColor();
+    assertEquals(2, slider.invalidations);
+    assertSame(red, slider.colorPaint.getShader());
+  }
+
+  private static CountingCanvas drawFrame(View slider) {
+    CountingCanvas canvas = new CountingCanvas(WIDTH, HEIGHT);
+    slider.draw(canvas);
+    return canvas;
+  }
+
+  private static <T extends View> T layOut(T view, int width, int height) {
+    view.measure(
+        View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+        View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+    view.layout(0, 0, width, height);
+    return view;
+  }
+
+  /** counts the invalidations of the slider. */
+  private static final class CountingAlphaSlideBar extends AlphaSlideBar {
+
+    int invalidations;
+
+    CountingAlphaSlideBar(Context context) {
+      super(context);
+    }
+
+    @Override
+    public void invalidate() {
+      invalidations++;
+      super.invalidate();
+    }
+  }
+
+  /**
+   * counts the draw calls, and the filled layers covering the whole canvas. Strokes draw only the
+   * outlines, so they aren't layers.
+   */
+  private static final class CountingCanvas extends Canvas {
+
+    private final int width;
+    private final int height;
+    int drawCalls;
+    int filledLayers;
+
+    CountingCanvas(int width, int height) {
+      super(Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888));
+      this.width = width;
+      this.height = height;
+    }
+
+    private void count(float left, float top, float right, float bottom, Paint paint) {
+      drawCalls++;
+      boolean filled = paint == null || paint.getStyle() != Paint.Style.STROKE;
+      if (filled && left <= 0 && top <= 0 && right >= width && bottom >= height) {
+        filledLayers++;
+      }
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+      count(left, top, right, bottom, paint);
+      super.drawRect(left, top, right, bottom, paint);
+    }
+
+    @Override
+    public void drawRect(Rect rect, Paint paint) {
+      count(rect.left, rect.top, rect.right, rect.bottom, paint);
+      super.drawRect(rect, paint);
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+      count(rect.left, rect.top, rect.right, rect.bottom, paint);
+      super.drawRect(rect, paint);
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+      count(rect.left, rect.top, rect.right, rect.bottom, paint);
+      super.drawRoundRect(rect, rx, ry, paint);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+      count(cx - radius, cy - radius, cx + radius, cy + radius, paint);
+      super.drawCircle(cx, cy, radius, paint);
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+      RectF bounds = new RectF();
+      path.computeBounds(bounds, true);
+      count(bounds.left, bounds.top, bounds.right, bounds.bottom, paint);
+      super.drawPath(path, paint);
+    }
+
+    @Override
+    public void drawPaint(Paint paint) {
+      count(0, 0, width, height, paint);
+      super.drawPaint(paint);
+    }
+
+    @Override
+    public void drawColor(int color) {
+      count(0, 0, width, height, null);
+      super.drawColor(color);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+      count(left, top, left + bitmap.getWidth(), top + bitmap.getHeight(), null);
+      super.drawBitmap(bitmap, left, top, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+      count(dst.left, dst.top, dst.right, dst.bottom, null);
+      super.drawBitmap(bitmap, src, dst, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+      count(dst.left, dst.top, dst.right, dst.bottom, null);
+      super.drawBitmap(bitmap, src, dst, paint);
+    }
+  }
+}